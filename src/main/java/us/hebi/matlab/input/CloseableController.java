@@ -2,6 +2,7 @@ package us.hebi.matlab.input;
 
 import net.java.games.input.Component;
 import net.java.games.input.Controller;
+import net.java.games.input.Event;
 import net.java.games.input.EventQueue;
 import net.java.games.input.Rumbler;
 
@@ -18,14 +19,34 @@ import java.util.Collection;
 public class CloseableController implements Controller, Closeable {
 
     CloseableController(Controller controller, Collection<Thread> shutdownHooks) {
-        if (controller == null || shutdownHooks == null)
+        this(controller, shutdownHooks, getDefaultDeviceId(controller));
+    }
+
+    CloseableController(Controller controller, Collection<Thread> shutdownHooks, String deviceId) {
+        if (controller == null || shutdownHooks == null || deviceId == null)
             throw new IllegalArgumentException("can't be null");
         this.controller = controller;
         this.shutdownHooks = shutdownHooks;
+        this.deviceId = deviceId;
+    }
+
+    /**
+     * @return identity of the physical device that does not depend on the MATLAB index
+     */
+    String getDeviceId() {
+        return deviceId;
+    }
+
+    static String getDefaultDeviceId(Controller controller) {
+        return controller.getType() + "|" + controller.getName() + "|"
+                + controller.getPortType() + "|" + controller.getPortNumber();
     }
 
     private final Controller controller;
     private final Collection<Thread> shutdownHooks;
+    private final String deviceId;
+
+    private final Event event = new Event();
 
     private boolean isClosed = false;
 
@@ -45,6 +66,27 @@ public class CloseableController implements Controller, Closeable {
         return controller.poll();
     }
 
+    /**
+     * Polls the device and moves all pending events into the buffer
+     *
+     * @return false if the device could not be polled
+     */
+    synchronized boolean drainEvents(EventBuffer buffer) {
+        if (isClosed)
+            throw new MatlabError("Device error: Closed or invalid device");
+
+        if (controller instanceof EventSource)
+            return ((EventSource) controller).drainEvents(buffer);
+
+        if (!controller.poll())
+            return false;
+        EventQueue queue = controller.getEventQueue();
+        while (queue.getNextEvent(event)) {
+            buffer.add(event.getComponent(), event.getValue(), event.getNanos());
+        }
+        return true;
+    }
+
     @Override
     public Controller[] getControllers() {
         return controller.getControllers();
@@ -0,0 +1,319 @@
+package us.hebi.matlab.input;
+
+import net.java.games.input.Component;
+import net.java.games.input.Component.Identifier;
+import net.java.games.input.Controller;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Layout of the axes, buttons, and povs of a joystick. Computing the layout
+ * requires classifying all components and sorting the axes to match vrjoystick.
+ * Instances that share a device also share its controller (see {@link SharedController}),
+ * so the layout gets cached per controller and reopening a device only costs a lookup.
+ * <p>
+ * Layouts can optionally be stored in a properties file by setting the system
+ * property 'matlabinput.profiles' to a file path. Stored profiles are keyed by the
+ * operating system, the device name and type, and a signature of all components,
+ * so a profile only gets used if the device exposes exactly the same components.
+ * The entries are zero based indices into the component list of the device and
+ * can be edited to remap axes and buttons, e.g.,
+ * <pre>
+ * 1a2b3c4d.name=Logitech Gamepad F310
+ * 1a2b3c4d.axes=0,1,4,2,3,5
+ * </pre>
+ * The file gets reloaded when it changes, but edits only apply to devices that get
+ * opened afterwards, i.e., after all instances of the device were closed. Invalid
+ * entries get reported and the device uses the default layout, but the entries
+ * are not overwritten.
+ *
+ * @since 19 Oct 2026
+ */
+final class DeviceProfile {
+
+    /**
+     * Returns the layout of the device. The layout gets computed on the first call for
+     * a controller, or read from the profile file if there is a matching stored profile.
+     */
+    static DeviceProfile forController(Controller controller) {
+        synchronized (DeviceProfile.class) {
+            DeviceProfile profile = cache.get(controller);
+            if (profile == null) {
+                profile = load(controller);
+                cache.put(controller, profile);
+            }
+            return profile;
+        }
+    }
+
+    private static DeviceProfile load(Controller controller) {
+        final Component[] components = controller.getComponents();
+        final File file = getFile();
+        if (file == null)
+            return createDefault(components);
+
+        final String signature = getSignature(components);
+        final String key = getKey(controller, signature);
+        Properties properties = getProperties(file);
+
+        // Use stored profile if it still matches the device. Invalid entries were likely
+        // edited by the user, so they get reported and kept rather than overwritten.
+        if (signature.equals(properties.getProperty(key + ".signature"))) {
+            String error;
+            try {
+                DeviceProfile profile = new DeviceProfile(
+                        parseIndices(properties.getProperty(key + ".axes")),
+                        parseIndices(properties.getProperty(key + ".buttons")),
+                        parseIndices(properties.getProperty(key + ".povs")));
+                if (profile.isValidFor(components))
+                    return profile;
+                error = "indices do not match the components of the device";
+            } catch (NumberFormatException e) {
+                error = e.getMessage();
+            }
+            System.err.println("Ignoring invalid device profile '" + key + "' in " + file
+                    + " (" + error + "). Using the default layout.");
+            return createDefault(components);
+        }
+
+        // Compute default layout and store it for the next time
+        DeviceProfile profile = createDefault(components);
+        Properties entries = new Properties();
+        entries.setProperty(key + ".name", controller.getName());
+        entries.setProperty(key + ".signature", signature);
+        entries.setProperty(key + ".axes", formatIndices(profile.axes));
+        entries.setProperty(key + ".buttons", formatIndices(profile.buttons));
+        entries.setProperty(key + ".povs", formatIndices(profile.povs));
+        saveProperties(file, entries);
+        return profile;
+    }
+
+    /**
+     * @return component indices of the axes in MATLAB order
+     */
+    int[] getAxes() {
+        return axes;
+    }
+
+    /**
+     * @return component indices of the buttons in MATLAB order
+     */
+    int[] getButtons() {
+        return buttons;
+    }
+
+    /**
+     * @return component indices of the povs in MATLAB order
+     */
+    int[] getPovs() {
+        return povs;
+    }
+
+    private DeviceProfile(int[] axes, int[] buttons, int[] povs) {
+        this.axes = axes;
+        this.buttons = buttons;
+        this.povs = povs;
+    }
+
+    private static DeviceProfile createDefault(final Component[] components) {
+        List<Integer> axes = new ArrayList<Integer>(10);
+        List<Integer> buttons = new ArrayList<Integer>(16);
+        List<Integer> povs = new ArrayList<Integer>(1);
+
+        for (int i = 0; i < components.length; i++) {
+            if (isPOV(components[i])) {
+                povs.add(i);
+            } else if (isAxis(components[i])) {
+                axes.add(i);
+            } else if (isButton(components[i])) {
+                // Buttons seem to always be ordered the same way as vrjoystick's
+                buttons.add(i);
+            }
+        }
+
+        // Sort axes (vrjoystick orders x,y,z,rx,ry,rz)
+        Collections.sort(axes, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer o1, Integer o2) {
+                String n1 = components[o1].getIdentifier().getName();
+                String n2 = components[o2].getIdentifier().getName();
+                if (n1.length() != n2.length()) // shorter strings first
+                    return n1.length() - n2.length();
+                return n1.compareToIgnoreCase(n2); // alphabetical order
+            }
+        });
+
+        return new DeviceProfile(toArray(axes), toArray(buttons), toArray(povs));
+    }
+
+    private boolean isValidFor(Component[] components) {
+        final boolean[] used = new boolean[components.length];
+        return isValidFor(components, axes, used, AXIS)
+                && isValidFor(components, buttons, used, BUTTON)
+                && isValidFor(components, povs, used, POV);
+    }
+
+    private static boolean isValidFor(Component[] components, int[] indices, boolean[] used, int kind) {
+        for (int index : indices) {
+            if (index < 0 || index >= components.length || used[index] || getKind(components[index]) != kind)
+                return false;
+            used[index] = true;
+        }
+        return true;
+    }
+
+    private static String getKey(Controller controller, String signature) {
+        String os = System.getProperty("os.name", "");
+        String id = os + "|" + controller.getType() + "|" + controller.getName() + "|" + signature;
+        return Integer.toHexString(id.hashCode());
+    }
+
+    private static String getSignature(Component[] components) {
+        StringBuilder builder = new StringBuilder(components.length * 4);
+        for (Component component : components) {
+            if (builder.length() > 0)
+                builder.append(',');
+            builder.append(KIND_PREFIX[getKind(component)]);
+            builder.append(component.getIdentifier().getName());
+            if (component.isRelative())
+                builder.append('~');
+        }
+        return builder.toString();
+    }
+
+    static int getKind(Component component) {
+        if (isPOV(component)) return POV;
+        if (isAxis(component)) return AXIS;
+        if (isButton(component)) return BUTTON;
+        return OTHER;
+    }
+
+    private static boolean isPOV(Component component) {
+        return Identifier.Axis.POV.equals(component.getIdentifier());
+    }
+
+    private static boolean isAxis(Component component) {
+        return component.getIdentifier() instanceof Identifier.Axis;
+    }
+
+    private static boolean isButton(Component component) {
+        return component.getIdentifier() instanceof Identifier.Button;
+    }
+
+    private static int[] parseIndices(String value) {
+        if (value == null)
+            throw new NumberFormatException("missing entry");
+        if (value.trim().isEmpty())
+            return new int[0];
+        String[] parts = value.split(",");
+        int[] indices = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            indices[i] = Integer.parseInt(parts[i].trim());
+        }
+        return indices;
+    }
+
+    private static String formatIndices(int[] indices) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < indices.length; i++) {
+            if (i > 0)
+                builder.append(',');
+            builder.append(indices[i]);
+        }
+        return builder.toString();
+    }
+
+    private static int[] toArray(List<Integer> list) {
+        int[] array = new int[list.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = list.get(i);
+        }
+        return array;
+    }
+
+    /**
+     * @return stored properties, which get reloaded if the file has changed since the last load
+     */
+    private static Properties getProperties(File file) {
+        if (properties == null || !file.equals(loadedFile)
+                || file.lastModified() != loadedModified || file.length() != loadedLength) {
+            properties = readProperties(file);
+        }
+        return properties;
+    }
+
+    private static Properties readProperties(File file) {
+        Properties properties = new Properties();
+        loadedFile = file;
+        loadedModified = file.lastModified();
+        loadedLength = file.length();
+        if (!file.isFile())
+            return properties;
+
+        try {
+            InputStream input = new FileInputStream(file);
+            try {
+                properties.load(input);
+            } finally {
+                input.close();
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to load device profiles. Message: " + e.getMessage());
+        }
+        return properties;
+    }
+
+    /**
+     * Adds the entries to the current content of the file, so that edits and entries
+     * from other processes that happened since the last load do not get overwritten
+     */
+    private static void saveProperties(File file, Properties entries) {
+        Properties merged = readProperties(file);
+        merged.putAll(entries);
+        try {
+            File dir = file.getParentFile();
+            if (dir != null && !dir.isDirectory() && !dir.mkdirs())
+                throw new IOException("Could not create " + dir);
+            OutputStream output = new FileOutputStream(file);
+            try {
+                merged.store(output, "MatlabInput device profiles. Entries are zero based component indices.");
+            } finally {
+                output.close();
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to save device profiles. Message: " + e.getMessage());
+        }
+        properties = merged;
+        loadedModified = file.lastModified();
+        loadedLength = file.length();
+    }
+
+    /**
+     * @return profile file, or null if profiles should not be stored
+     */
+    private static File getFile() {
+        String path = System.getProperty("matlabinput.profiles");
+        if (path == null || path.trim().isEmpty())
+            return null;
+        return new File(path.trim());
+    }
+
+    private final int[] axes;
+    private final int[] buttons;
+    private final int[] povs;
+
+    static final int AXIS = 0;
+    static final int BUTTON = 1;
+    static final int POV = 2;
+    static final int OTHER = 3;
+    private static final char[] KIND_PREFIX = {'a', 'b', 'p', 'o'};
+
+    // Guarded by class
+    private static final Map<Controller, DeviceProfile> cache = new WeakHashMap<Controller, DeviceProfile>();
+    private static Properties properties = null;
+    private static File loadedFile = null;
+    private static long loadedModified = 0;
+    private static long loadedLength = 0;
+
+}
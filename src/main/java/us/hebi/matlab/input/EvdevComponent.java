@@ -0,0 +1,92 @@
+package us.hebi.matlab.input;
+
+import net.java.games.input.Component;
+
+/**
+ * Component of a device that is read via the Linux evdev interface. Absolute
+ * axes are normalized to [-1, 1]. The axis ranges are not available without
+ * native ioctl calls, so axes are read via joydev (see {@link JoydevDecoder}).
+ *
+ * @since 19 Oct 2026
+ */
+final class EvdevComponent implements Component {
+
+    EvdevComponent(Identifier identifier, boolean isAnalog) {
+        this.identifier = identifier;
+        this.isAnalog = isAnalog;
+    }
+
+    /**
+     * Combines the hat switch directions into a JInput POV value
+     */
+    float updateHat(boolean isX, int value) {
+        if (isX) hatX = Integer.signum(value);
+        else hatY = Integer.signum(value);
+
+        if (hatY < 0) {
+            if (hatX < 0) return POV.UP_LEFT;
+            if (hatX > 0) return POV.UP_RIGHT;
+            return POV.UP;
+        } else if (hatY > 0) {
+            if (hatX < 0) return POV.DOWN_LEFT;
+            if (hatX > 0) return POV.DOWN_RIGHT;
+            return POV.DOWN;
+        }
+        if (hatX < 0) return POV.LEFT;
+        if (hatX > 0) return POV.RIGHT;
+        return POV.OFF;
+    }
+
+    /**
+     * @return true if the value differs from the last accepted value
+     */
+    boolean update(float value) {
+        if (value == pollData)
+            return false;
+        pollData = value;
+        return true;
+    }
+
+    @Override
+    public Identifier getIdentifier() {
+        return identifier;
+    }
+
+    @Override
+    public boolean isRelative() {
+        return false;
+    }
+
+    @Override
+    public boolean isAnalog() {
+        return isAnalog;
+    }
+
+    @Override
+    public float getDeadZone() {
+        return 0;
+    }
+
+    @Override
+    public float getPollData() {
+        return pollData;
+    }
+
+    @Override
+    public String getName() {
+        return identifier.getName();
+    }
+
+    @Override
+    public String toString() {
+        return getName();
+    }
+
+    private final Identifier identifier;
+    private final boolean isAnalog;
+    private volatile float pollData = 0;
+
+    private int hatX = 0;
+    private int hatY = 0;
+
+}
@@ -0,0 +1,522 @@
+package us.hebi.matlab.input;
+
+import net.java.games.input.Component;
+import net.java.games.input.Component.Identifier;
+import net.java.games.input.Controller;
+import net.java.games.input.EventQueue;
+import net.java.games.input.Rumbler;
+
+import java.io.*;
+import java.math.BigInteger;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.util.*;
+
+/**
+ * Pure Java driver for Linux devices that reads 'input_event' structs directly
+ * from /dev/input/event*. In contrast to the JInput natives this does not require
+ * root access, only read permissions on the device file (typically membership in
+ * the 'input' group). The device capabilities are read from sysfs.
+ * <p>
+ * Reads on device files block, so a background thread decodes incoming events
+ * and stages them until the next poll. If the device also has a joydev node
+ * (/dev/input/js*), absolute axes are read from there instead, because joydev
+ * scales them by their actual range. The ranges are not available from evdev
+ * without native ioctl calls, so devices with analog axes can only be opened if
+ * their joydev node is readable.
+ *
+ * @since 19 Oct 2026
+ */
+final class EvdevController implements Controller, EventSource, Closeable, EvdevDecoder.Listener, JoydevDecoder.Listener {
+
+    /**
+     * Opens the n-th event device that matches the type
+     *
+     * @return device or null if no matching device was found
+     */
+    static EvdevController open(int matlabId, TypeMatcher typeMatcher) throws IOException {
+        int id = matlabId; // 1 indexed
+        for (File device : listDevices(new File(DEVICE_DIR))) {
+            File sysfsDir = new File(SYSFS_DIR, device.getName() + "/device");
+            if (!sysfsDir.isDirectory())
+                continue;
+            Capabilities caps = new Capabilities(sysfsDir);
+            if (typeMatcher.matches(caps.type) && --id == 0) {
+                return new EvdevController(device, caps);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return event devices sorted by their number, i.e., event0, event1, ..., event10
+     */
+    static File[] listDevices(File directory) {
+        File[] devices = directory.listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.startsWith("event");
+            }
+        });
+        if (devices == null)
+            return new File[0];
+        Arrays.sort(devices, new Comparator<File>() {
+            @Override
+            public int compare(File o1, File o2) {
+                String n1 = o1.getName();
+                String n2 = o2.getName();
+                if (n1.length() != n2.length())
+                    return n1.length() - n2.length();
+                return n1.compareTo(n2);
+            }
+        });
+        return devices;
+    }
+
+    EvdevController(File device, Capabilities caps) throws IOException {
+        this.path = device.getPath();
+        this.name = caps.name;
+        this.type = caps.type;
+
+        // Build components in the order of the event codes
+        List<Component> components = new ArrayList<Component>();
+        boolean hasAnalogAxes = false;
+        for (int code = caps.abs.nextSetBit(0); code >= 0 && code < absComponents.length; code = caps.abs.nextSetBit(code + 1)) {
+            if (code == ABS_HAT0Y && absComponents[ABS_HAT0X] != null) {
+                absComponents[code] = absComponents[ABS_HAT0X];
+            } else if (code == ABS_HAT0X || code == ABS_HAT0Y) {
+                absComponents[code] = new EvdevComponent(Identifier.Axis.POV, false);
+            } else if (code < AXES.length) {
+                absComponents[code] = new EvdevComponent(AXES[code], true);
+                hasAnalogAxes = true;
+            } else {
+                continue;
+            }
+            if (!components.contains(absComponents[code]))
+                components.add(absComponents[code]);
+        }
+        int buttonCount = 0;
+        for (int code = caps.key.nextSetBit(0); code >= 0 && code < keyComponents.length; code = caps.key.nextSetBit(code + 1)) {
+            if (code < KEYS.length && KEYS[code] != null) {
+                keyComponents[code] = new EvdevComponent(KEYS[code], false);
+            } else if (code >= BTN_MISC && buttonCount < BUTTONS.length) {
+                keyComponents[code] = new EvdevComponent(BUTTONS[buttonCount++], false);
+            } else {
+                continue;
+            }
+            components.add(keyComponents[code]);
+        }
+        this.components = components.toArray(new Component[components.size()]);
+
+        // Map joydev axis numbers to event codes. Joydev numbers all absolute axes in the order of their codes.
+        joydevAxes = new int[caps.abs.cardinality()];
+        for (int i = 0, code = caps.abs.nextSetBit(0); i < joydevAxes.length; i++, code = caps.abs.nextSetBit(code + 1)) {
+            joydevAxes[i] = code;
+        }
+
+        // Read axes via joydev. Guessing the ranges from observed values would report
+        // full deflection for small movements, which is not safe for teleoperation.
+        FileChannel joydev = null;
+        if (caps.joydev != null && joydevAxes.length > 0) {
+            try {
+                joydev = new FileInputStream(new File(DEVICE_DIR, caps.joydev)).getChannel();
+            } catch (IOException e) {
+                if (hasAnalogAxes)
+                    throw new MatlabError("Could not open " + DEVICE_DIR + "/" + caps.joydev + ", which is required " +
+                            "for reading analog axes. Make sure that the user has read permissions. Message: " + e.getMessage());
+            }
+        } else if (hasAnalogAxes) {
+            throw new MatlabError("Device has analog axes but no joydev node (/dev/input/js*), which is required " +
+                    "for reading their range. Load the joydev module (modprobe joydev) or use the 'native' driver.");
+        }
+        this.joydevChannel = joydev;
+        this.joydevDecoder = joydev == null ? null : new JoydevDecoder(joydev);
+
+        try {
+            this.channel = new FileInputStream(device).getChannel();
+        } catch (IOException e) {
+            if (joydev != null)
+                joydev.close();
+            throw e;
+        }
+        this.decoder = new EvdevDecoder(channel);
+
+        // Start reading
+        reader.setDaemon(true);
+        reader.setName("HebiJoystick Evdev Reader");
+        reader.start();
+        if (joydevDecoder != null) {
+            joydevReader.setDaemon(true);
+            joydevReader.setName("HebiJoystick Joydev Reader");
+            joydevReader.start();
+        }
+    }
+
+    @Override
+    public void onEvent(int type, int code, int value, long nanos) {
+        final EvdevComponent component;
+        final float normalized;
+        if (type == EvdevDecoder.EV_KEY && code < keyComponents.length && keyComponents[code] != null) {
+            component = keyComponents[code];
+            normalized = value == 0 ? 0 : 1; // treat auto-repeat (2) as pressed
+        } else if (type == EvdevDecoder.EV_ABS && joydevDecoder == null
+                && code < absComponents.length && absComponents[code] != null) {
+            // Without joydev there are only hat switches, see constructor
+            component = absComponents[code];
+            if (code != ABS_HAT0X && code != ABS_HAT0Y)
+                return;
+            normalized = component.updateHat(code == ABS_HAT0X, value);
+        } else {
+            return;
+        }
+
+        stage(component, normalized, nanos);
+    }
+
+    @Override
+    public void onJoydevEvent(int type, int number, int value) {
+        if ((type & ~JoydevDecoder.JS_EVENT_INIT) != JoydevDecoder.JS_EVENT_AXIS || number >= joydevAxes.length)
+            return;
+        final int code = joydevAxes[number];
+        if (code >= absComponents.length || absComponents[code] == null)
+            return;
+
+        final EvdevComponent component = absComponents[code];
+        final float normalized;
+        if (code == ABS_HAT0X || code == ABS_HAT0Y) {
+            normalized = component.updateHat(code == ABS_HAT0X, value);
+        } else {
+            normalized = value / JoydevDecoder.AXIS_SCALE;
+        }
+
+        // Evdev timestamps are based on the realtime clock
+        stage(component, normalized, System.currentTimeMillis() * 1000000L);
+    }
+
+    private void stage(EvdevComponent component, float value, long nanos) {
+        // Only report changes (similar to JInput)
+        if (component.update(value)) {
+            synchronized (this) {
+                stagedEvents.add(component, value, nanos);
+            }
+        }
+    }
+
+    @Override
+    public synchronized boolean drainEvents(EventBuffer buffer) {
+        while (cursor.next()) {
+            buffer.add(cursor.getComponent(), cursor.getValue(), cursor.getNanos());
+        }
+        return isConnected;
+    }
+
+    @Override
+    public boolean poll() {
+        return isConnected;
+    }
+
+    @Override
+    public synchronized void setEventQueueSize(int size) {
+        stagedEvents.ensureCapacity(size);
+    }
+
+    @Override
+    public EventQueue getEventQueue() {
+        // Events are only available through drainEvents
+        return emptyQueue;
+    }
+
+    @Override
+    public void close() throws IOException {
+        // Closing the channels unblocks the reader threads
+        try {
+            channel.close();
+        } finally {
+            if (joydevChannel != null)
+                joydevChannel.close();
+        }
+        try {
+            reader.join(1000);
+            if (joydevDecoder != null)
+                joydevReader.join(1000);
+        } catch (InterruptedException e) {
+            System.err.println("Closing evdev reader timed out");
+        }
+    }
+
+    @Override
+    public Controller[] getControllers() {
+        return new Controller[0];
+    }
+
+    @Override
+    public Type getType() {
+        return type;
+    }
+
+    @Override
+    public Component[] getComponents() {
+        return components;
+    }
+
+    @Override
+    public Component getComponent(Identifier id) {
+        for (Component component : components) {
+            if (component.getIdentifier() == id)
+                return component;
+        }
+        return null;
+    }
+
+    @Override
+    public Rumbler[] getRumblers() {
+        // Force feedback requires ioctl calls
+        return new Rumbler[0];
+    }
+
+    @Override
+    public PortType getPortType() {
+        return PortType.UNKNOWN;
+    }
+
+    @Override
+    public int getPortNumber() {
+        return 0;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return path of the event device, e.g., /dev/input/event5
+     */
+    String getPath() {
+        return path;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    private final Thread reader = new Thread(new Runnable() {
+        @Override
+        public void run() {
+            try {
+                while (decoder.read(EvdevController.this) >= 0) {
+                    // decoder forwards events to onEvent
+                }
+            } catch (ClosedChannelException e) {
+                // closed by user
+            } catch (IOException e) {
+                // device got disconnected
+            } finally {
+                isConnected = false;
+            }
+        }
+    });
+
+    private final Thread joydevReader = new Thread(new Runnable() {
+        @Override
+        public void run() {
+            try {
+                while (joydevDecoder.read(EvdevController.this) >= 0) {
+                    // decoder forwards events to onJoydevEvent
+                }
+            } catch (ClosedChannelException e) {
+                // closed by user
+            } catch (IOException e) {
+                // device got disconnected
+            } finally {
+                isConnected = false;
+            }
+        }
+    });
+
+    /**
+     * Device information that is exposed by the kernel in sysfs, i.e.,
+     * /sys/class/input/eventN/device/
+     */
+    static class Capabilities {
+
+        Capabilities(File sysfsDir) throws IOException {
+            name = readFirstLine(new File(sysfsDir, "name"));
+            key = readBitmask(new File(sysfsDir, "capabilities/key"));
+            abs = readBitmask(new File(sysfsDir, "capabilities/abs"));
+            rel = readBitmask(new File(sysfsDir, "capabilities/rel"));
+            joydev = findJoydev(sysfsDir);
+            type = classify();
+        }
+
+        /**
+         * @return name of the joydev node of the device, e.g., js0, or null if there is none
+         */
+        private static String findJoydev(File sysfsDir) {
+            String[] names = sysfsDir.list();
+            if (names != null) {
+                for (String name : names) {
+                    if (name.startsWith("js"))
+                        return name;
+                }
+            }
+            return null;
+        }
+
+        private Type classify() {
+            if (key.get(BTN_GAMEPAD))
+                return Type.GAMEPAD;
+            if (key.get(BTN_JOYSTICK))
+                return Type.STICK;
+            if (key.get(BTN_WHEEL))
+                return Type.WHEEL;
+            if (key.get(KEY_A) && key.get(KEY_Z) && key.get(KEY_SPACE))
+                return Type.KEYBOARD;
+            if (key.get(BTN_MOUSE) && rel.get(REL_X))
+                return Type.MOUSE;
+            return Type.UNKNOWN;
+        }
+
+        /**
+         * Bitmasks are printed as space separated hex words (native longs)
+         * with the most significant word first
+         */
+        static BitSet readBitmask(File file) throws IOException {
+            if (!file.isFile())
+                return new BitSet();
+            return parseBitmask(readFirstLine(file), EvdevDecoder.isNative64Bit() ? 64 : 32);
+        }
+
+        static BitSet parseBitmask(String text, int bitsPerWord) {
+            BitSet bits = new BitSet();
+            String[] words = text.trim().split("\\s+");
+            for (int i = 0; i < words.length; i++) {
+                if (words[i].isEmpty())
+                    continue;
+                BigInteger word = new BigInteger(words[i], 16);
+                final int offset = (words.length - 1 - i) * bitsPerWord;
+                for (int bit = word.getLowestSetBit(); bit >= 0 && bit < word.bitLength(); bit++) {
+                    if (word.testBit(bit))
+                        bits.set(offset + bit);
+                }
+            }
+            return bits;
+        }
+
+        final String name;
+        final BitSet key;
+        final BitSet abs;
+        final BitSet rel;
+        final String joydev;
+        final Type type;
+
+    }
+
+    private static String readFirstLine(File file) throws IOException {
+        BufferedReader reader = new BufferedReader(new FileReader(file));
+        try {
+            String line = reader.readLine();
+            return line == null ? "" : line.trim();
+        } finally {
+            reader.close();
+        }
+    }
+
+    private final String path;
+    private final String name;
+    private final Type type;
+    private final Component[] components;
+    private final EvdevComponent[] keyComponents = new EvdevComponent[KEY_CNT];
+    private final EvdevComponent[] absComponents = new EvdevComponent[ABS_CNT];
+
+    private final FileChannel channel;
+    private final EvdevDecoder decoder;
+    private final FileChannel joydevChannel;
+    private final JoydevDecoder joydevDecoder;
+    private final int[] joydevAxes;
+    private volatile boolean isConnected = true;
+
+    // Staged events (guarded by this)
+    private final EventBuffer stagedEvents = new EventBuffer(DEFAULT_QUEUE_SIZE);
+    private final EventBuffer.Cursor cursor = stagedEvents.newCursor();
+
+    private static final EventQueue emptyQueue = new EventQueue(0);
+    private static final int DEFAULT_QUEUE_SIZE = 32;
+
+    private static final String DEVICE_DIR = "/dev/input";
+    private static final String SYSFS_DIR = "/sys/class/input";
+
+    // Event codes (linux/input-event-codes.h)
+    private static final int KEY_CNT = 0x300;
+    private static final int KEY_A = 30;
+    private static final int KEY_Z = 44;
+    private static final int KEY_SPACE = 57;
+    private static final int BTN_MISC = 0x100;
+    private static final int BTN_MOUSE = 0x110;
+    private static final int BTN_JOYSTICK = 0x120;
+    private static final int BTN_GAMEPAD = 0x130;
+    private static final int BTN_WHEEL = 0x150;
+    private static final int REL_X = 0x00;
+    private static final int ABS_CNT = 0x40;
+    private static final int ABS_HAT0X = 0x10;
+    private static final int ABS_HAT0Y = 0x11;
+
+    // ABS_X, ABS_Y, ABS_Z, ABS_RX, ABS_RY, ABS_RZ, ABS_THROTTLE, ABS_RUDDER, ABS_WHEEL, ABS_GAS, ABS_BRAKE
+    private static final Identifier.Axis[] AXES = {
+            Identifier.Axis.X, Identifier.Axis.Y, Identifier.Axis.Z,
+            Identifier.Axis.RX, Identifier.Axis.RY, Identifier.Axis.RZ,
+            Identifier.Axis.SLIDER, Identifier.Axis.SLIDER, Identifier.Axis.SLIDER,
+            Identifier.Axis.SLIDER, Identifier.Axis.SLIDER};
+
+    private static final Identifier.Button[] BUTTONS = {
+            Identifier.Button._0, Identifier.Button._1, Identifier.Button._2, Identifier.Button._3,
+            Identifier.Button._4, Identifier.Button._5, Identifier.Button._6, Identifier.Button._7,
+            Identifier.Button._8, Identifier.Button._9, Identifier.Button._10, Identifier.Button._11,
+            Identifier.Button._12, Identifier.Button._13, Identifier.Button._14, Identifier.Button._15,
+            Identifier.Button._16, Identifier.Button._17, Identifier.Button._18, Identifier.Button._19,
+            Identifier.Button._20, Identifier.Button._21, Identifier.Button._22, Identifier.Button._23,
+            Identifier.Button._24, Identifier.Button._25, Identifier.Button._26, Identifier.Button._27,
+            Identifier.Button._28, Identifier.Button._29, Identifier.Button._30, Identifier.Button._31};
+
+    // Keys that are supported by HebiKeyboard, indexed by key code
+    private static final Identifier.Key[] KEYS = new Identifier.Key[BTN_MISC];
+
+    static {
+        Identifier.Key[] numbers = {
+                Identifier.Key._1, Identifier.Key._2, Identifier.Key._3, Identifier.Key._4, Identifier.Key._5,
+                Identifier.Key._6, Identifier.Key._7, Identifier.Key._8, Identifier.Key._9, Identifier.Key._0};
+        System.arraycopy(numbers, 0, KEYS, 2, numbers.length); // KEY_1 to KEY_0
+
+        Identifier.Key[] row1 = {
+                Identifier.Key.Q, Identifier.Key.W, Identifier.Key.E, Identifier.Key.R, Identifier.Key.T,
+                Identifier.Key.Y, Identifier.Key.U, Identifier.Key.I, Identifier.Key.O, Identifier.Key.P};
+        System.arraycopy(row1, 0, KEYS, 16, row1.length); // KEY_Q to KEY_P
+
+        Identifier.Key[] row2 = {
+                Identifier.Key.A, Identifier.Key.S, Identifier.Key.D, Identifier.Key.F, Identifier.Key.G,
+                Identifier.Key.H, Identifier.Key.J, Identifier.Key.K, Identifier.Key.L};
+        System.arraycopy(row2, 0, KEYS, 30, row2.length); // KEY_A to KEY_L
+
+        Identifier.Key[] row3 = {
+                Identifier.Key.Z, Identifier.Key.X, Identifier.Key.C, Identifier.Key.V,
+                Identifier.Key.B, Identifier.Key.N, Identifier.Key.M};
+        System.arraycopy(row3, 0, KEYS, 44, row3.length); // KEY_Z to KEY_M
+
+        KEYS[1] = Identifier.Key.ESCAPE;
+        KEYS[15] = Identifier.Key.TAB;
+        KEYS[29] = Identifier.Key.LCONTROL;
+        KEYS[42] = Identifier.Key.LSHIFT;
+        KEYS[54] = Identifier.Key.RSHIFT;
+        KEYS[56] = Identifier.Key.LALT;
+        KEYS[57] = Identifier.Key.SPACE;
+        KEYS[58] = Identifier.Key.CAPITAL;
+        KEYS[97] = Identifier.Key.RCONTROL;
+        KEYS[100] = Identifier.Key.RALT;
+        KEYS[103] = Identifier.Key.UP;
+        KEYS[105] = Identifier.Key.LEFT;
+        KEYS[106] = Identifier.Key.RIGHT;
+        KEYS[108] = Identifier.Key.DOWN;
+    }
+
+}
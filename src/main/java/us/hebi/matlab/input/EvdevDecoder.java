@@ -0,0 +1,109 @@
+package us.hebi.matlab.input;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Decodes Linux 'input_event' structs from a channel, e.g., a FileChannel that
+ * is opened on /dev/input/event*, or a Pipe for testing. Events are read in
+ * batches into a reused direct buffer and passed to a listener as primitives,
+ * so decoding does not allocate.
+ * <p>
+ * struct input_event {
+ * struct timeval time; // two native longs
+ * __u16 type;
+ * __u16 code;
+ * __s32 value;
+ * };
+ *
+ * @since 19 Oct 2026
+ */
+final class EvdevDecoder {
+
+    interface Listener {
+        void onEvent(int type, int code, int value, long nanos);
+    }
+
+    // Event types (linux/input-event-codes.h)
+    static final int EV_SYN = 0x00;
+    static final int EV_KEY = 0x01;
+    static final int EV_REL = 0x02;
+    static final int EV_ABS = 0x03;
+
+    EvdevDecoder(ReadableByteChannel channel, boolean is64Bit, int batchSize) {
+        if (channel == null)
+            throw new IllegalArgumentException("null argument");
+        if (batchSize <= 0)
+            throw new IllegalArgumentException("batch size must be positive");
+        this.channel = channel;
+        this.is64Bit = is64Bit;
+        this.eventSize = getEventSize(is64Bit);
+        this.buffer = ByteBuffer.allocateDirect(eventSize * batchSize).order(ByteOrder.nativeOrder());
+    }
+
+    EvdevDecoder(ReadableByteChannel channel) {
+        this(channel, isNative64Bit(), DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Reads the next batch of bytes from the channel and decodes all complete
+     * events. Incomplete trailing bytes are kept for the next call.
+     *
+     * @return number of decoded events, or -1 if the end of the stream was reached
+     */
+    int read(Listener listener) throws IOException {
+        if (channel.read(buffer) < 0)
+            return -1;
+
+        buffer.flip();
+        int count = 0;
+        for (int pos = buffer.position(); buffer.limit() - pos >= eventSize; pos += eventSize) {
+
+            final long seconds;
+            final long micros;
+            final int offset;
+            if (is64Bit) {
+                seconds = buffer.getLong(pos);
+                micros = buffer.getLong(pos + 8);
+                offset = pos + 16;
+            } else {
+                seconds = buffer.getInt(pos);
+                micros = buffer.getInt(pos + 4);
+                offset = pos + 8;
+            }
+
+            final int type = buffer.getShort(offset) & 0xFFFF;
+            final int code = buffer.getShort(offset + 2) & 0xFFFF;
+            final int value = buffer.getInt(offset + 4);
+            listener.onEvent(type, code, value, seconds * 1000000000L + micros * 1000L);
+
+            buffer.position(pos + eventSize);
+            count++;
+        }
+        buffer.compact();
+        return count;
+
+    }
+
+    int getEventSize() {
+        return eventSize;
+    }
+
+    static int getEventSize(boolean is64Bit) {
+        return is64Bit ? 24 : 16;
+    }
+
+    static boolean isNative64Bit() {
+        return !"32".equals(System.getProperty("sun.arch.data.model"));
+    }
+
+    private final ReadableByteChannel channel;
+    private final boolean is64Bit;
+    private final int eventSize;
+    private final ByteBuffer buffer;
+
+    private static final int DEFAULT_BATCH_SIZE = 64;
+
+}
@@ -0,0 +1,151 @@
+package us.hebi.matlab.input;
+
+import net.java.games.input.Component;
+
+/**
+ * Fixed-size ring buffer of input events that can be consumed by multiple
+ * readers. Each reader keeps its own cursor, so events only need to be
+ * drained from a device once no matter how many readers there are.
+ * <p>
+ * Readers that fall behind by more than the capacity skip ahead to the
+ * oldest retained event, which matches the behavior of an overflowing
+ * JInput event queue. This class is not thread-safe.
+ *
+ * @since 19 Oct 2026
+ */
+final class EventBuffer {
+
+    EventBuffer(int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("capacity must be positive");
+        allocate(capacity);
+    }
+
+    void add(Component component, float value, long nanos) {
+        final int i = (int) (writeIndex % capacity);
+        components[i] = component;
+        values[i] = value;
+        this.nanos[i] = nanos;
+        writeIndex++;
+    }
+
+    /**
+     * Grows the buffer while retaining all events that are still readable
+     */
+    void ensureCapacity(int minCapacity) {
+        if (minCapacity <= capacity)
+            return;
+
+        final Component[] oldComponents = components;
+        final float[] oldValues = values;
+        final long[] oldNanos = nanos;
+        final int oldCapacity = capacity;
+        final long oldest = getOldestIndex();
+        allocate(minCapacity);
+
+        // Slots beyond the old capacity have never been written, so they must not become readable
+        oldestIndex = oldest;
+        for (long index = oldest; index < writeIndex; index++) {
+            final int src = (int) (index % oldCapacity);
+            final int dst = (int) (index % capacity);
+            components[dst] = oldComponents[src];
+            values[dst] = oldValues[src];
+            nanos[dst] = oldNanos[src];
+        }
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    long getWriteIndex() {
+        return writeIndex;
+    }
+
+    /**
+     * @return index of the oldest event that can still be read
+     */
+    long getOldestIndex() {
+        return Math.max(oldestIndex, writeIndex - capacity);
+    }
+
+    /**
+     * @return a cursor that starts at the oldest retained event so that new readers
+     * can reconstruct the recent state of the device
+     */
+    Cursor newCursor() {
+        return new Cursor(getOldestIndex());
+    }
+
+    private void allocate(int capacity) {
+        this.capacity = capacity;
+        components = new Component[capacity];
+        values = new float[capacity];
+        nanos = new long[capacity];
+    }
+
+    final class Cursor {
+
+        private Cursor(long readIndex) {
+            this.readIndex = readIndex;
+        }
+
+        /**
+         * Advances to the next event
+         *
+         * @return false if there are no more events
+         */
+        boolean next() {
+            if (readIndex >= writeIndex)
+                return false;
+
+            // Skip events that have already been overwritten
+            final long oldest = getOldestIndex();
+            if (readIndex < oldest) {
+                droppedEvents += oldest - readIndex;
+                readIndex = oldest;
+            }
+
+            current = (int) (readIndex % capacity);
+            currentIndex = readIndex++;
+            return true;
+        }
+
+        /**
+         * @return position of the current event within the buffer, see {@link #getWriteIndex()}
+         */
+        long getIndex() {
+            return currentIndex;
+        }
+
+        Component getComponent() {
+            return components[current];
+        }
+
+        float getValue() {
+            return values[current];
+        }
+
+        long getNanos() {
+            return nanos[current];
+        }
+
+        long getDroppedEvents() {
+            return droppedEvents;
+        }
+
+        private long readIndex;
+        private int current;
+        private long currentIndex = -1;
+        private long droppedEvents = 0;
+
+    }
+
+    private Component[] components;
+    private float[] values;
+    private long[] nanos;
+    private int capacity;
+    private long writeIndex = 0;
+    private long oldestIndex = 0;
+
+}
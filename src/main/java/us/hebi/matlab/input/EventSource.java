@@ -0,0 +1,20 @@
+package us.hebi.matlab.input;
+
+/**
+ * Controllers that are not backed by JInput can't fill JInput event queues
+ * because events can only be created from within the JInput package. Such
+ * controllers implement this interface to move their events directly into
+ * the buffer that gets consumed by the MATLAB objects.
+ *
+ * @since 19 Oct 2026
+ */
+interface EventSource {
+
+    /**
+     * Moves all events that were received since the last call into the buffer
+     *
+     * @return false if the device could not be read
+     */
+    public boolean drainEvents(EventBuffer buffer);
+
+}
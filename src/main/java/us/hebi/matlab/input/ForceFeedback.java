@@ -0,0 +1,293 @@
+package us.hebi.matlab.input;
+
+import net.java.games.input.Rumbler;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends force feedback commands to the device from a background thread. Calls
+ * to rumblers are native calls that can be slow on some drivers, and Simulink
+ * sets the force at every step even if nothing has changed.
+ * <p>
+ * Setting a value only stores the target and returns immediately. The thread
+ * coalesces bursts of commands to the latest value for each rumbler, drops
+ * repeated commands, and evaluates timed envelopes. Repeating a timed command
+ * does not restart its envelope.
+ *
+ * @since 19 Oct 2026
+ */
+final class ForceFeedback {
+
+    enum Envelope {
+        /**
+         * Holds the value indefinitely
+         */
+        CONSTANT,
+
+        /**
+         * Linearly interpolates from the current output to the value over the duration
+         */
+        RAMP,
+
+        /**
+         * Holds the value for the duration and then turns off
+         */
+        PULSE,
+
+        /**
+         * Starts at the value and decays exponentially with the duration as time constant
+         */
+        DECAY
+    }
+
+    ForceFeedback(Rumbler[] rumblers) {
+        if (rumblers == null)
+            throw new IllegalArgumentException("null argument");
+        this.rumblers = rumblers;
+        final int n = rumblers.length;
+        envelopes = new Envelope[n];
+        startValues = new float[n];
+        targetValues = new float[n];
+        startNanos = new long[n];
+        durationNanos = new long[n];
+        commandValues = new float[n];
+        commandEnvelopes = new Envelope[n];
+        commandSeconds = new double[n];
+        hasFailed = new boolean[n];
+        sentValues = new float[n];
+        Arrays.fill(envelopes, Envelope.CONSTANT);
+        Arrays.fill(sentValues, Float.NaN);
+    }
+
+    int size() {
+        return rumblers.length;
+    }
+
+    /**
+     * Stores a new command for the rumbler at the given index. Does not block.
+     *
+     * @param index    zero based rumbler index
+     * @param value    target intensity
+     * @param envelope shape of the output over time
+     * @param seconds  duration of the envelope. Ignored for constant values.
+     */
+    synchronized void set(int index, float value, Envelope envelope, double seconds) {
+        if (isClosed)
+            throw new MatlabError("Device error: Closed or invalid device");
+
+        if (envelope == Envelope.CONSTANT)
+            seconds = 0;
+
+        // Drop repeated commands, but retry if the last output did not reach the device
+        if (commandEnvelopes[index] == envelope
+                && commandValues[index] == value
+                && commandSeconds[index] == seconds) {
+            if (hasFailed[index]) {
+                isDirty = true;
+                notifyAll();
+            }
+            return;
+        }
+        commandValues[index] = value;
+        commandEnvelopes[index] = envelope;
+        commandSeconds[index] = seconds;
+
+        final long now = System.nanoTime();
+        startValues[index] = computeOutput(index, now);
+        targetValues[index] = value;
+        envelopes[index] = envelope;
+        startNanos[index] = now;
+        durationNanos[index] = Math.max(0, (long) (seconds * 1E9));
+
+        isDirty = true;
+        if (thread == null) {
+            thread = new Thread(loop);
+            thread.setDaemon(true);
+            thread.setName("HebiJoystick Force Feedback");
+            thread.start();
+        }
+        notifyAll();
+    }
+
+    /**
+     * Stops the background thread. Waits up to a second for a pending native call to return.
+     *
+     * @return false if the thread is still running, i.e., the device must not be released yet
+     */
+    boolean close() {
+        Thread worker;
+        synchronized (this) {
+            if (!isClosed) {
+                isClosed = true;
+                closedWorker = thread;
+                notifyAll();
+            }
+            worker = closedWorker;
+        }
+        if (worker != null) {
+            try {
+                worker.join(1000);
+            } catch (InterruptedException e) {
+                System.err.println("Closing force feedback timed out");
+            }
+            return !worker.isAlive();
+        }
+        return true;
+    }
+
+    /**
+     * Blocks until the background thread of a closed instance has stopped
+     */
+    void awaitClosed() throws InterruptedException {
+        Thread worker;
+        synchronized (this) {
+            worker = closedWorker;
+        }
+        if (worker != null)
+            worker.join();
+    }
+
+    /**
+     * Blocks until there is something to send and then computes the current
+     * outputs of all rumblers.
+     *
+     * @return false if the thread should exit
+     */
+    private synchronized boolean awaitOutputs(float[] values) throws InterruptedException {
+        while (!isClosed && !isDirty && !isAnimating()) {
+            wait();
+        }
+
+        // Limit the update rate of active envelopes. New commands wake us up early.
+        if (!isClosed && !isDirty) {
+            TimeUnit.NANOSECONDS.timedWait(this, ENVELOPE_PERIOD_NS);
+        }
+
+        if (isClosed)
+            return false;
+
+        isDirty = false;
+        final long now = System.nanoTime();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = computeOutput(i, now);
+        }
+        return true;
+    }
+
+    private boolean isAnimating() {
+        for (Envelope envelope : envelopes) {
+            if (envelope != Envelope.CONSTANT)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Evaluates the envelope of the rumbler at the given index. Envelopes that
+     * have finished get converted to constant values.
+     */
+    private float computeOutput(int index, long now) {
+        final float target = targetValues[index];
+        final long elapsed = now - startNanos[index];
+        final long duration = durationNanos[index];
+
+        switch (envelopes[index]) {
+
+            case RAMP:
+                if (elapsed < duration) {
+                    final float start = startValues[index];
+                    return start + (target - start) * ((float) elapsed / duration);
+                }
+                return finish(index, target);
+
+            case PULSE:
+                if (elapsed < duration)
+                    return target;
+                return finish(index, 0);
+
+            case DECAY:
+                final float value = duration == 0 ? 0 : target * (float) Math.exp(-(double) elapsed / duration);
+                if (Math.abs(value) > DECAY_THRESHOLD)
+                    return value;
+                return finish(index, 0);
+
+            default:
+                return target;
+
+        }
+    }
+
+    private synchronized void setFailed(int index, boolean failed) {
+        hasFailed[index] = failed;
+    }
+
+    private float finish(int index, float value) {
+        envelopes[index] = Envelope.CONSTANT;
+        targetValues[index] = value;
+        return value;
+    }
+
+    private final Runnable loop = new Runnable() {
+        @Override
+        public void run() {
+            final float[] values = new float[rumblers.length];
+            try {
+                while (awaitOutputs(values)) {
+
+                    // Only the background thread accesses the native device
+                    for (int i = 0; i < values.length; i++) {
+                        if (values[i] != sentValues[i]) {
+                            try {
+                                rumblers[i].rumble(values[i]);
+                                sentValues[i] = values[i];
+                                setFailed(i, false);
+                            } catch (RuntimeException e) {
+                                // Keep going so that later commands and other rumblers still work.
+                                // The value gets sent again with the next command, even if it is a repeat.
+                                setFailed(i, true);
+                                if (!hasReportedError)
+                                    System.err.println("Force feedback failed. Message: " + e.getMessage());
+                                hasReportedError = true;
+                            }
+                        }
+                    }
+
+                }
+            } catch (InterruptedException e) {
+                // exit
+            } finally {
+                // Let the next command start a new thread in case this one died unexpectedly
+                synchronized (ForceFeedback.this) {
+                    if (thread == Thread.currentThread())
+                        thread = null;
+                }
+            }
+        }
+    };
+
+    private final Rumbler[] rumblers;
+
+    // Commands (guarded by this)
+    private final Envelope[] envelopes;
+    private final float[] startValues;
+    private final float[] targetValues;
+    private final long[] startNanos;
+    private final long[] durationNanos;
+    private final float[] commandValues;
+    private final Envelope[] commandEnvelopes;
+    private final double[] commandSeconds;
+    private final boolean[] hasFailed;
+    private boolean isDirty = false;
+    private boolean isClosed = false;
+    private Thread thread = null;
+    private Thread closedWorker = null;
+
+    // Last values sent to the device (only accessed by the background thread)
+    private final float[] sentValues;
+    private boolean hasReportedError = false;
+
+    private static final long ENVELOPE_PERIOD_NS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final float DECAY_THRESHOLD = 1E-3f;
+
+}
@@ -1,7 +1,6 @@
 package us.hebi.matlab.input;
 
 import net.java.games.input.*;
-import net.java.games.input.Component.Identifier;
 import net.java.games.input.Component.POV;
 
 import java.util.*;
@@ -18,6 +17,18 @@ import java.util.concurrent.TimeoutException;
 public class HebiJoystick {
 
     public double[][][] read() {
+        update();
+
+        // Return state as a cell array that can be directly assigned to varargout
+        return matlabCellArray;
+    }
+
+    /**
+     * Polls the device and updates the state
+     *
+     * @return true if the state changed since the last update
+     */
+    synchronized boolean update() {
 
         // Poll events since last poll
         if (!joystick.poll()) {
@@ -25,37 +36,78 @@ public class HebiJoystick {
         }
 
         // Work through events to build current state
-        EventQueue queue = joystick.getEventQueue();
-        Event event = new Event();
-        while (queue.getNextEvent(event)) {
+        boolean hasChanged = false;
+        while (joystick.nextEvent()) {
+            hasChanged = true;
 
-            Component component = event.getComponent();
-            final double value = event.getValue();
+            Component component = joystick.getComponent();
+            final double value = joystick.getValue();
 
-            if (isPOV(component)) {
+            final Integer slot = componentSlots.get(component);
+            if (slot == null)
+                continue;
 
-                final int i = povIndex.get(component);
-                povs[i] = convertPovToDeg(value);
+            final int i = slot >> 2;
+            switch (slot & 3) {
 
-            } else if (isAxis(component)) {
+                case DeviceProfile.POV:
+                    povs[i] = convertPovToDeg(value);
+                    break;
 
-                final int i = axisIndex.get(component);
-                axes[i] = component.isRelative() ? axes[i] + value : value;
+                case DeviceProfile.AXIS:
+                    axes[i] = component.isRelative() ? axes[i] + value : value;
+                    break;
 
-            } else if (isButton(component)) {
+                case DeviceProfile.BUTTON:
+                    buttons[i] = component.isRelative() ? buttons[i] + value : value;
+                    break;
 
-                final int i = buttonIndex.get(component);
-                buttons[i] = component.isRelative() ? buttons[i] + value : value;
             }
 
         }
 
-        // Return state as a cell array that can be directly assigned to varargout
-        return matlabCellArray;
+        // Forward new states to other processes
+        if (hasChanged && streamer != null) {
+            streamer.publish(StatePacket.KIND_JOYSTICK, axes, buttons, povs);
+        }
+
+        return hasChanged;
+
+    }
 
+    /**
+     * @return new state in the same format as read()
+     */
+    double[][][] createState() {
+        return new double[][][]{
+                new double[][]{new double[axes.length]},
+                new double[][]{new double[buttons.length]},
+                new double[][]{new double[povs.length]}};
+    }
+
+    /**
+     * Copies the current state into a state that was created by createState()
+     */
+    synchronized void copyState(double[][][] dst) {
+        System.arraycopy(axes, 0, dst[0][0], 0, axes.length);
+        System.arraycopy(buttons, 0, dst[1][0], 0, buttons.length);
+        System.arraycopy(povs, 0, dst[2][0], 0, povs.length);
     }
 
     public void force(int[] index, float[] value) {
+        force(index, value, "constant", 0);
+    }
+
+    /**
+     * Applies force feedback to the selected axes. The values are sent to the device by a
+     * background thread, so this call never blocks on the driver.
+     *
+     * @param index    one based indices of the selected rumblers
+     * @param value    scalar or one value per index
+     * @param envelope 'constant', 'ramp', 'pulse', or 'decay'
+     * @param seconds  duration (ramp, pulse) or time constant (decay) of the envelope
+     */
+    public void force(int[] index, float[] value, String envelope, double seconds) {
         if (rumblers.length == 0)
             throw new MatlabError("This device does not support force feedback.");
         if (index == null || value == null)
@@ -63,15 +115,49 @@ public class HebiJoystick {
         if (value.length != 1 && value.length != index.length)
             throw new MatlabError("Values must be a scalar or a vector of the same length as indices");
 
+        final ForceFeedback.Envelope type = getEnvelope(envelope);
+        if (seconds < 0)
+            throw new MatlabError("Duration can't be negative");
+
         for (int i = 0; i < index.length; i++) {
             final int javaIndex = index[i] - 1;
-            if (javaIndex >= rumblers.length)
+            if (javaIndex < 0 || javaIndex >= rumblers.length)
                 throw new MatlabError("Index out of range");
-            rumblers[javaIndex].rumble(value.length == 1 ? value[0] : value[i]);
+            forceFeedback.set(javaIndex, value.length == 1 ? value[0] : value[i], type, seconds);
+        }
+    }
+
+    private static ForceFeedback.Envelope getEnvelope(String name) {
+        for (ForceFeedback.Envelope envelope : ForceFeedback.Envelope.values()) {
+            if (envelope.name().equalsIgnoreCase(name))
+                return envelope;
+        }
+        throw new MatlabError("Unknown envelope. Expected 'constant', 'ramp', 'pulse', or 'decay'");
+    }
+
+    /**
+     * Sends every new state to the target address via UDP. See StatePacket
+     * for the format and StateReceiver for a matching receiver.
+     */
+    public synchronized void startStreaming(String host, int port) {
+        stopStreaming();
+        try {
+            streamer = new StateStreamer(host, port);
+        } catch (Exception e) {
+            throw new MatlabError("Could not start streaming. Message: " + e.getMessage());
+        }
+        streamer.publish(StatePacket.KIND_JOYSTICK, axes, buttons, povs);
+    }
+
+    public synchronized void stopStreaming() {
+        if (streamer != null) {
+            streamer.close();
+            streamer = null;
         }
     }
 
     public void close() {
+        stopStreaming();
         joystick.close();
     }
 
@@ -95,7 +181,7 @@ public class HebiJoystick {
 
     public Object getName() {
         // Returning String on 'Object' automatically converts to char array
-        return joystick.getName();
+        return joystick.getController().getName();
     }
 
     public void setEventQueueSize(int value) {
@@ -103,56 +189,67 @@ public class HebiJoystick {
     }
 
     public HebiJoystick(int matlabId) {
+        this(matlabId, "native");
+    }
 
-        // Select joystick
-        joystick = getJoystick(matlabId);
-
-        List<Component> unsortedAxes = new ArrayList<Component>(10);
-
-        // Create lookup tables
-        for (Component component : joystick.getComponents()) {
-            if (isPOV(component)) {
-                povIndex.put(component, povIndex.size());
-            } else if (isAxis(component)) {
-                unsortedAxes.add(component);
-            } else if (isButton(component)) {
-                // Buttons seem to always be ordered the same way as vrjoystick's
-                buttonIndex.put(component, buttonIndex.size());
-            }
+    public HebiJoystick(final int matlabId, String driver) {
+
+        // Select joystick. Instances for the same device share the native resources.
+        if ("native".equalsIgnoreCase(driver)) {
+            joystick = SharedController.acquire("joystick:native", new SharedController.Factory() {
+                @Override
+                public CloseableController create() {
+                    return getJoystick(matlabId);
+                }
+            });
+        } else if ("evdev".equalsIgnoreCase(driver)) {
+            joystick = SharedController.acquire("joystick:evdev", new SharedController.Factory() {
+                @Override
+                public CloseableController create() {
+                    CloseableController controller = JInputUtils.createEvdevController(matlabId, isJoystick);
+                    if (controller == null)
+                        throw new MatlabError("Joystick is not connected.");
+                    return controller;
+                }
+            });
+        } else {
+            throw new MatlabError("Unknown driver. Expected 'native' or 'evdev'");
         }
-        this.rumblers = joystick.getRumblers();
-
-        // Sort axes (vrjoystick orders x,y,z,rx,ry,rz)
-        Collections.sort(unsortedAxes, new Comparator<Component>() {
-            @Override
-            public int compare(Component o1, Component o2) {
-                String n1 = o1.getIdentifier().getName();
-                String n2 = o2.getIdentifier().getName();
-                if (n1.length() != n2.length()) // shorter strings first
-                    return n1.length() - n2.length();
-                return n1.compareToIgnoreCase(n2); // alphabetical order
-            }
-        });
-        // Build index
-        for (Component component : unsortedAxes) {
-            axisIndex.put(component, axisIndex.size());
-        }
-
-        // Create initial states zeroes for axes and -1 for povs
-        axes = new double[axisIndex.size()];
-        buttons = new double[buttonIndex.size()];
-        povs = new double[povIndex.size()];
-        Arrays.fill(povs, -1);
 
-        // Create a MATLAB readable format. "double[3][1][N]" converts to a cell array of row vectors
-        // assuming that the 3rd dimension is jagged, i.e., different amounts of buttons than povs.
-        if (axes.length == buttons.length && buttons.length == povs.length) {
-            throw new AssertionError("Assuming different numbers of buttons than povs and axes.");
+        // Release the handle if the device can't be used
+        boolean isInitialized = false;
+        try {
+            CloseableController controller = joystick.getController();
+
+            // Create lookup table from the cached or newly computed layout
+            Component[] components = controller.getComponents();
+            DeviceProfile profile = DeviceProfile.forController(controller);
+            addSlots(components, profile.getAxes(), DeviceProfile.AXIS);
+            addSlots(components, profile.getButtons(), DeviceProfile.BUTTON);
+            addSlots(components, profile.getPovs(), DeviceProfile.POV);
+            this.rumblers = controller.getRumblers();
+            this.forceFeedback = joystick.getForceFeedback();
+
+            // Create initial states zeroes for axes and -1 for povs
+            axes = new double[profile.getAxes().length];
+            buttons = new double[profile.getButtons().length];
+            povs = new double[profile.getPovs().length];
+            Arrays.fill(povs, -1);
+
+            // Create a MATLAB readable format. "double[3][1][N]" converts to a cell array of row vectors
+            // assuming that the 3rd dimension is jagged, i.e., different amounts of buttons than povs.
+            if (axes.length == buttons.length && buttons.length == povs.length) {
+                throw new AssertionError("Assuming different numbers of buttons than povs and axes.");
+            }
+            matlabCellArray = new double[][][]{
+                    new double[][]{axes},
+                    new double[][]{buttons},
+                    new double[][]{povs}};
+            isInitialized = true;
+        } finally {
+            if (!isInitialized)
+                joystick.close();
         }
-        matlabCellArray = new double[][][]{
-                new double[][]{axes},
-                new double[][]{buttons},
-                new double[][]{povs}};
 
     }
 
@@ -169,16 +266,13 @@ public class HebiJoystick {
         return -1;
     }
 
-    private static boolean isPOV(Component component) {
-        return Identifier.Axis.POV.equals(component.getIdentifier());
-    }
-
-    private static boolean isAxis(Component component) {
-        return component.getIdentifier() instanceof Identifier.Axis;
-    }
-
-    private static boolean isButton(Component component) {
-        return component.getIdentifier() instanceof Identifier.Button;
+    /**
+     * Stores the kind in the lower two bits and the MATLAB index in the remaining bits
+     */
+    private void addSlots(Component[] components, int[] indices, int kind) {
+        for (int i = 0; i < indices.length; i++) {
+            componentSlots.put(components[indices[i]], (i << 2) | kind);
+        }
     }
 
     private static CloseableController getJoystick(int matlabId) {
@@ -195,11 +289,9 @@ public class HebiJoystick {
         throw new MatlabError("Joystick is not connected.");
     }
 
-    private final CloseableController joystick;
+    private final SharedController.Handle joystick;
 
-    private final HashMap<Component, Integer> buttonIndex = new HashMap<Component, Integer>();
-    private final HashMap<Component, Integer> axisIndex = new HashMap<Component, Integer>();
-    private final HashMap<Component, Integer> povIndex = new HashMap<Component, Integer>();
+    private final IdentityHashMap<Component, Integer> componentSlots = new IdentityHashMap<Component, Integer>();
 
     private final double[] axes;
     private final double[] buttons;
@@ -207,6 +299,8 @@ public class HebiJoystick {
     private final double[][][] matlabCellArray;
 
     private final Rumbler[] rumblers;
+    private final ForceFeedback forceFeedback;
+    private StateStreamer streamer = null;
 
     private static final TypeMatcher isJoystick = new TypeMatcher() {
         @Override
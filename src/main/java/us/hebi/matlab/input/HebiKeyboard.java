@@ -2,8 +2,6 @@ package us.hebi.matlab.input;
 
 import net.java.games.input.Component.Identifier;
 import net.java.games.input.Controller;
-import net.java.games.input.Event;
-import net.java.games.input.EventQueue;
 
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -16,13 +14,34 @@ import java.util.concurrent.TimeoutException;
  */
 public class HebiKeyboard {
 
-    public HebiKeyboard(String driver, int id) {
+    public HebiKeyboard(String driver, final int id) {
+        // Instances for the same device share the native resources
         if ("AWT".equalsIgnoreCase(driver)) {
-            keyboard = JInputUtils.createAWTKeyboard();
+            keyboard = SharedController.acquire("keyboard:AWT", new SharedController.Factory() {
+                @Override
+                public CloseableController create() {
+                    return JInputUtils.createAWTKeyboard();
+                }
+            });
         } else if ("native".equalsIgnoreCase(driver)) {
-            keyboard = getNativeKeyboard(id);
+            keyboard = SharedController.acquire("keyboard:native", new SharedController.Factory() {
+                @Override
+                public CloseableController create() {
+                    return getNativeKeyboard(id);
+                }
+            });
+        } else if ("evdev".equalsIgnoreCase(driver)) {
+            keyboard = SharedController.acquire("keyboard:evdev", new SharedController.Factory() {
+                @Override
+                public CloseableController create() {
+                    CloseableController controller = JInputUtils.createEvdevController(id, isKeyboard);
+                    if (controller == null)
+                        throw new MatlabError("Keyboard is not connected.");
+                    return controller;
+                }
+            });
         } else {
-            throw new MatlabError("Unknown driver. Expected 'AWT' or 'native'");
+            throw new MatlabError("Unknown driver. Expected 'AWT', 'native', or 'evdev'");
         }
     }
 
@@ -51,9 +70,40 @@ public class HebiKeyboard {
         private double ALT_RIGHT;
         private double SHIFT_LEFT;
         private double SHIFT_RIGHT;
+
+        void copyFrom(KeyboardState other) {
+            System.arraycopy(other.keys[0], 0, keys[0], 0, keys[0].length);
+            CTRL = other.CTRL;
+            ALT = other.ALT;
+            SHIFT = other.SHIFT;
+            CAPS_LOCK = other.CAPS_LOCK;
+            TAB = other.TAB;
+            SPACE = other.SPACE;
+            ESC = other.ESC;
+            UP = other.UP;
+            LEFT = other.LEFT;
+            RIGHT = other.RIGHT;
+            DOWN = other.DOWN;
+            CTRL_LEFT = other.CTRL_LEFT;
+            CTRL_RIGHT = other.CTRL_RIGHT;
+            ALT_LEFT = other.ALT_LEFT;
+            ALT_RIGHT = other.ALT_RIGHT;
+            SHIFT_LEFT = other.SHIFT_LEFT;
+            SHIFT_RIGHT = other.SHIFT_RIGHT;
+        }
     }
 
     public KeyboardState read() {
+        update();
+        return state;
+    }
+
+    /**
+     * Polls the device and updates the state
+     *
+     * @return true if the state changed since the last update
+     */
+    synchronized boolean update() {
 
         // Poll events since last poll
         if (!keyboard.poll()) {
@@ -61,12 +111,12 @@ public class HebiKeyboard {
         }
 
         // Work through events to build current state
-        EventQueue queue = keyboard.getEventQueue();
-        Event event = new Event();
-        while (queue.getNextEvent(event)) {
+        boolean hasChanged = false;
+        while (keyboard.nextEvent()) {
+            hasChanged = true;
 
-            final Identifier id = event.getComponent().getIdentifier();
-            final double value = event.getValue();
+            final Identifier id = keyboard.getComponent().getIdentifier();
+            final double value = keyboard.getValue();
 
             if (!(id instanceof Identifier.Key))
                 continue;
@@ -132,11 +182,63 @@ public class HebiKeyboard {
         state.ALT = Math.max(state.ALT_LEFT, state.ALT_RIGHT);
         state.SHIFT = Math.max(state.SHIFT_LEFT, state.SHIFT_RIGHT);
 
-        return state;
+        // Forward new states to other processes
+        if (hasChanged && streamer != null) {
+            publishState();
+        }
+
+        return hasChanged;
+    }
+
+    /**
+     * Copies the current state into the target
+     */
+    synchronized void copyState(KeyboardState dst) {
+        dst.copyFrom(state);
+    }
+
+    /**
+     * Sends every new state to the target address via UDP. See StatePacket
+     * for the format and StateReceiver for a matching receiver.
+     */
+    public synchronized void startStreaming(String host, int port) {
+        stopStreaming();
+        try {
+            streamer = new StateStreamer(host, port);
+        } catch (Exception e) {
+            throw new MatlabError("Could not start streaming. Message: " + e.getMessage());
+        }
+        publishState();
+    }
+
+    public synchronized void stopStreaming() {
+        if (streamer != null) {
+            streamer.close();
+            streamer = null;
+        }
+    }
+
+    private void publishState() {
+        // Keys followed by meta keys (see StatePacket)
+        final double[] keys = state.keys[0];
+        System.arraycopy(keys, 0, streamButtons, 0, keys.length);
+        int i = keys.length;
+        streamButtons[i++] = state.CTRL;
+        streamButtons[i++] = state.ALT;
+        streamButtons[i++] = state.SHIFT;
+        streamButtons[i++] = state.CAPS_LOCK;
+        streamButtons[i++] = state.TAB;
+        streamButtons[i++] = state.SPACE;
+        streamButtons[i++] = state.ESC;
+        streamButtons[i++] = state.UP;
+        streamButtons[i++] = state.LEFT;
+        streamButtons[i++] = state.RIGHT;
+        streamButtons[i] = state.DOWN;
+        streamer.publish(StatePacket.KIND_KEYBOARD, EMPTY, streamButtons, EMPTY);
     }
 
     public Object getName() {
-        return keyboard.getName();
+        return keyboard.getController().getName();
     }
 
     public void setEventQueueSize(int value) {
@@ -144,6 +246,7 @@ public class HebiKeyboard {
     }
 
     public void close() {
+        stopStreaming();
         keyboard.close();
     }
 
@@ -161,9 +264,13 @@ public class HebiKeyboard {
         throw new MatlabError("Keyboard is not connected.");
     }
 
-    private final CloseableController keyboard;
+    private final SharedController.Handle keyboard;
     private final KeyboardState state = new KeyboardState();
 
+    private StateStreamer streamer = null;
+    private final double[] streamButtons = new double[KeyboardState.LAST_KEY + 11];
+    private static final double[] EMPTY = new double[0];
+
     private static final TypeMatcher isKeyboard = new TypeMatcher() {
         @Override
         public boolean matches(Controller.Type type) {
@@ -0,0 +1,542 @@
+package us.hebi.matlab.input;
+
+import net.java.games.input.Component;
+import net.java.games.input.Component.Identifier;
+import net.java.games.input.Controller;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Polls multiple keyboards, joysticks, and mice from a single background thread
+ * at a fixed rate and publishes their states as one combined snapshot. Loops that
+ * use several devices only need one call per iteration, and the device polling does
+ * not happen on the MATLAB thread.
+ * <p>
+ * Devices that are registered with a hub are updated by the hub thread, so their
+ * state should be read through the hub rather than through their own read method.
+ * A device that fails to update keeps its last state and reports an error in the
+ * snapshot, while the other devices keep getting updated.
+ * <p>
+ * Example:
+ * <pre>
+ * InputHub hub = new InputHub(100);
+ * hub.addJoystick(1, "native");
+ * hub.addKeyboard("AWT", 1);
+ * InputHub.Snapshot snapshot = hub.read();
+ * double[][][] joystick = (double[][][]) snapshot.states[0];
+ * </pre>
+ *
+ * @since 19 Oct 2026
+ */
+public class InputHub implements Closeable {
+
+    /**
+     * @param rateHz polling rate of the background thread
+     */
+    public InputHub(double rateHz) {
+        if (!(rateHz > 0))
+            throw new MatlabError("Rate must be positive");
+        periodNs = (long) (1E9 / rateHz);
+    }
+
+    /**
+     * Opens a joystick that is owned and closed by this hub
+     *
+     * @return one based device index within snapshots
+     */
+    public int addJoystick(int matlabId, String driver) {
+        return add(new JoystickDevice(new HebiJoystick(matlabId, driver), true));
+    }
+
+    /**
+     * Opens a keyboard that is owned and closed by this hub
+     *
+     * @return one based device index within snapshots
+     */
+    public int addKeyboard(String driver, int matlabId) {
+        return add(new KeyboardDevice(new HebiKeyboard(driver, matlabId), true));
+    }
+
+    /**
+     * Opens a mouse that is owned and closed by this hub. Mice are only supported
+     * by the native driver.
+     *
+     * @return one based device index within snapshots
+     */
+    public int addMouse(int matlabId, String driver) {
+        if (!"native".equalsIgnoreCase(driver))
+            throw new MatlabError("Unknown driver. Mice are only supported by the 'native' driver");
+        return add(new MouseDevice(matlabId));
+    }
+
+    /**
+     * Registers an existing joystick. The caller remains responsible for closing it.
+     *
+     * @return one based device index within snapshots
+     */
+    public int add(HebiJoystick joystick) {
+        return add(new JoystickDevice(joystick, false));
+    }
+
+    /**
+     * Registers an existing keyboard. The caller remains responsible for closing it.
+     *
+     * @return one based device index within snapshots
+     */
+    public int add(HebiKeyboard keyboard) {
+        return add(new KeyboardDevice(keyboard, false));
+    }
+
+    /**
+     * Returns a copy of the most recently published states. Does not poll any
+     * device and does not block the hub thread.
+     */
+    public Snapshot read() {
+        if (isClosed)
+            throw new MatlabError("Hub is closed");
+
+        // Retry if the hub published while copying
+        Snapshot snapshot;
+        long version;
+        do {
+            version = lock.beginRead();
+            snapshot = copyPublished();
+        } while (!lock.validate(version));
+
+        if (snapshot == null)
+            throw new MatlabError("Failed to copy device states");
+        return snapshot;
+    }
+
+    @Override
+    public void close() {
+        Thread worker;
+        synchronized (this) {
+            if (isClosed)
+                return;
+            isClosed = true;
+            worker = thread;
+        }
+        if (worker != null) {
+            worker.interrupt();
+            try {
+                worker.join(1000);
+            } catch (InterruptedException e) {
+                System.err.println("Closing input hub timed out");
+            }
+        }
+        synchronized (this) {
+            for (Device device : devices) {
+                device.close();
+            }
+        }
+    }
+
+    /**
+     * Combined state of all devices at one point in time
+     */
+    public static class Snapshot {
+
+        /**
+         * One entry per device in the order in which they were added. Joysticks use the
+         * same format as HebiJoystick::read, keyboards use KeyboardState, and mice use MouseState.
+         */
+        public final Object[] states;
+
+        /**
+         * Number of state changes of each device since it was added
+         */
+        public final double[] sequence;
+
+        /**
+         * Message of the last update of each device if it failed, or an empty string if the
+         * device is healthy. A failed device keeps its last successful state.
+         */
+        public final String[] errors;
+
+        private Snapshot(int size) {
+            states = new Object[size];
+            sequence = new double[size];
+            errors = new String[size];
+        }
+
+    }
+
+    /**
+     * State of a mouse. Relative axes are accumulated since the mouse was added.
+     * Public fields can be converted to a MATLAB struct via 'struct()'.
+     */
+    public static class MouseState {
+
+        public double x;
+        public double y;
+        public double wheel;
+        public double[] buttons;
+
+        MouseState(int numButtons) {
+            buttons = new double[numButtons];
+        }
+
+    }
+
+    private synchronized int add(Device device) {
+        if (isClosed) {
+            device.close();
+            throw new MatlabError("Hub is closed");
+        }
+
+        // The hub thread only publishes while holding this monitor, so there is a single writer
+        lock.beginWrite();
+        devices.add(device);
+        published.add(device.createState());
+        publishedSequence.add(0L);
+        publishedErrors.add(null);
+        device.publish(published.get(published.size() - 1));
+        lock.endWrite();
+
+        if (thread == null) {
+            thread = new Thread(loop);
+            thread.setDaemon(true);
+            thread.setName("HebiJoystick Input Hub");
+            thread.start();
+        }
+        return devices.size();
+    }
+
+    /**
+     * Polls all devices and publishes the states of those that changed
+     */
+    private synchronized void tick() {
+        final int size = devices.size();
+        if (changed.length < size) {
+            changed = new boolean[size * 2];
+            errors = new String[size * 2];
+        }
+
+        // A failing device must not stop the others
+        for (int i = 0; i < size; i++) {
+            try {
+                changed[i] = devices.get(i).update();
+                errors[i] = null;
+            } catch (RuntimeException e) {
+                changed[i] = false;
+                errors[i] = e.getMessage() == null ? e.toString() : e.getMessage();
+            }
+        }
+
+        lock.beginWrite();
+        for (int i = 0; i < size; i++) {
+            if (changed[i]) {
+                devices.get(i).publish(published.get(i));
+                publishedSequence.set(i, publishedSequence.get(i) + 1);
+            }
+            publishedErrors.set(i, errors[i]);
+        }
+        lock.endWrite();
+    }
+
+    /**
+     * Copies the published states. May observe inconsistent data while the hub
+     * is publishing, which gets detected by the sequence lock.
+     *
+     * @return copy or null if the copy failed due to concurrent modification
+     */
+    private Snapshot copyPublished() {
+        try {
+            final int size = published.size();
+            Snapshot snapshot = new Snapshot(size);
+            for (int i = 0; i < size; i++) {
+                snapshot.sequence[i] = publishedSequence.get(i);
+                snapshot.states[i] = devices.get(i).copy(published.get(i));
+                final String error = publishedErrors.get(i);
+                snapshot.errors[i] = error == null ? "" : error;
+            }
+            return snapshot;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private final Runnable loop = new Runnable() {
+        @Override
+        public void run() {
+            long nextTick = System.nanoTime();
+            try {
+                while (!isClosed) {
+                    tick();
+
+                    // Skip missed ticks rather than catching up in a burst
+                    nextTick += periodNs;
+                    final long now = System.nanoTime();
+                    if (now - nextTick > periodNs)
+                        nextTick = now;
+                    Timing.sleepUntil(nextTick);
+                }
+            } catch (InterruptedException e) {
+                // closed
+            }
+        }
+    };
+
+    /**
+     * Adapter for the different device types
+     */
+    private static abstract class Device {
+
+        Device(boolean isOwned) {
+            this.isOwned = isOwned;
+        }
+
+        abstract boolean update();
+
+        abstract Object createState();
+
+        /**
+         * Copies the current device state into a state that was created by createState()
+         */
+        abstract void publish(Object state);
+
+        /**
+         * @return copy of a state that was created by createState()
+         */
+        abstract Object copy(Object state);
+
+        abstract void closeDevice();
+
+        void close() {
+            if (isOwned)
+                closeDevice();
+        }
+
+        private final boolean isOwned;
+
+    }
+
+    private static class JoystickDevice extends Device {
+
+        JoystickDevice(HebiJoystick joystick, boolean isOwned) {
+            super(isOwned);
+            this.joystick = joystick;
+        }
+
+        @Override
+        boolean update() {
+            return joystick.update();
+        }
+
+        @Override
+        Object createState() {
+            return joystick.createState();
+        }
+
+        @Override
+        void publish(Object state) {
+            joystick.copyState((double[][][]) state);
+        }
+
+        @Override
+        Object copy(Object state) {
+            double[][][] src = (double[][][]) state;
+            double[][][] dst = joystick.createState();
+            for (int i = 0; i < src.length; i++) {
+                System.arraycopy(src[i][0], 0, dst[i][0], 0, src[i][0].length);
+            }
+            return dst;
+        }
+
+        @Override
+        void closeDevice() {
+            joystick.close();
+        }
+
+        private final HebiJoystick joystick;
+
+    }
+
+    private static class KeyboardDevice extends Device {
+
+        KeyboardDevice(HebiKeyboard keyboard, boolean isOwned) {
+            super(isOwned);
+            this.keyboard = keyboard;
+        }
+
+        @Override
+        boolean update() {
+            return keyboard.update();
+        }
+
+        @Override
+        Object createState() {
+            return new HebiKeyboard.KeyboardState();
+        }
+
+        @Override
+        void publish(Object state) {
+            keyboard.copyState((HebiKeyboard.KeyboardState) state);
+        }
+
+        @Override
+        Object copy(Object state) {
+            HebiKeyboard.KeyboardState copy = new HebiKeyboard.KeyboardState();
+            copy.copyFrom((HebiKeyboard.KeyboardState) state);
+            return copy;
+        }
+
+        @Override
+        void closeDevice() {
+            keyboard.close();
+        }
+
+        private final HebiKeyboard keyboard;
+
+    }
+
+    /**
+     * Mice are only available through the hub, so this reads the shared device directly
+     */
+    private static class MouseDevice extends Device {
+
+        MouseDevice(final int matlabId) {
+            super(true);
+            mouse = SharedController.acquire("mouse:native", new SharedController.Factory() {
+                @Override
+                public CloseableController create() {
+                    return getNativeMouse(matlabId);
+                }
+            });
+
+            // Release the handle if the device can't be used
+            boolean isInitialized = false;
+            try {
+                // Stores the kind in the lower two bits and the index in the remaining bits
+                int numButtons = 0;
+                for (Component component : mouse.getController().getComponents()) {
+                    final Identifier id = component.getIdentifier();
+                    if (id == Identifier.Axis.X) {
+                        slots.put(component, (AXIS_X << 2) | DeviceProfile.AXIS);
+                    } else if (id == Identifier.Axis.Y) {
+                        slots.put(component, (AXIS_Y << 2) | DeviceProfile.AXIS);
+                    } else if (id == Identifier.Axis.Z) {
+                        slots.put(component, (AXIS_WHEEL << 2) | DeviceProfile.AXIS);
+                    } else if (id instanceof Identifier.Button) {
+                        slots.put(component, (numButtons++ << 2) | DeviceProfile.BUTTON);
+                    }
+                }
+                buttons = new double[numButtons];
+                isInitialized = true;
+            } finally {
+                if (!isInitialized)
+                    mouse.close();
+            }
+        }
+
+        @Override
+        boolean update() {
+            if (!mouse.poll())
+                throw new MatlabError("Mouse device error: Failed to read mouse status.");
+
+            boolean hasChanged = false;
+            while (mouse.nextEvent()) {
+                final Component component = mouse.getComponent();
+                final Integer slot = slots.get(component);
+                if (slot == null)
+                    continue;
+                hasChanged = true;
+
+                final int i = slot >> 2;
+                final double value = mouse.getValue();
+                if ((slot & 3) == DeviceProfile.AXIS) {
+                    axes[i] = component.isRelative() ? axes[i] + value : value;
+                } else {
+                    buttons[i] = value;
+                }
+            }
+            return hasChanged;
+        }
+
+        @Override
+        Object createState() {
+            return new MouseState(buttons.length);
+        }
+
+        @Override
+        void publish(Object state) {
+            MouseState dst = (MouseState) state;
+            dst.x = axes[AXIS_X];
+            dst.y = axes[AXIS_Y];
+            dst.wheel = axes[AXIS_WHEEL];
+            System.arraycopy(buttons, 0, dst.buttons, 0, buttons.length);
+        }
+
+        @Override
+        Object copy(Object state) {
+            MouseState src = (MouseState) state;
+            MouseState dst = new MouseState(src.buttons.length);
+            dst.x = src.x;
+            dst.y = src.y;
+            dst.wheel = src.wheel;
+            System.arraycopy(src.buttons, 0, dst.buttons, 0, src.buttons.length);
+            return dst;
+        }
+
+        @Override
+        void closeDevice() {
+            mouse.close();
+        }
+
+        private static CloseableController getNativeMouse(int matlabId) {
+            try {
+                CloseableController mouse = JInputUtils.getControllerOrTimeout(matlabId, 5, TimeUnit.SECONDS, isMouse);
+                if (mouse != null)
+                    return mouse;
+            } catch (TimeoutException e) {
+                throw new MatlabError("Controller search timed out.");
+            } catch (Exception e) {
+                throw new MatlabError("Could not get mouse. Message: " + e.getMessage());
+            }
+            throw new MatlabError("Mouse is not connected.");
+        }
+
+        // Only accessed by the hub thread, or while holding the hub monitor
+        private final SharedController.Handle mouse;
+        private final IdentityHashMap<Component, Integer> slots = new IdentityHashMap<Component, Integer>();
+        private final double[] axes = new double[3];
+        private final double[] buttons;
+
+        private static final int AXIS_X = 0;
+        private static final int AXIS_Y = 1;
+        private static final int AXIS_WHEEL = 2;
+
+        private static final TypeMatcher isMouse = new TypeMatcher() {
+            @Override
+            public boolean matches(Controller.Type type) {
+                return type == Controller.Type.MOUSE;
+            }
+        };
+
+    }
+
+    private final long periodNs;
+
+    // Modified only while holding this monitor
+    private final List<Device> devices = new ArrayList<Device>();
+    private Thread thread = null;
+
+    // Only accessed by the hub thread
+    private boolean[] changed = new boolean[8];
+    private String[] errors = new String[8];
+
+    // Published states (written under the sequence lock)
+    private final SequenceLock lock = new SequenceLock();
+    private final List<Object> published = new ArrayList<Object>();
+    private final List<Long> publishedSequence = new ArrayList<Long>();
+    private final List<String> publishedErrors = new ArrayList<String>();
+
+    private volatile boolean isClosed = false;
+
+}
@@ -6,6 +6,8 @@ import net.java.games.input.Keyboard;
 
 import java.awt.*;
 import java.awt.event.AWTEventListener;
+import java.io.Closeable;
+import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
@@ -117,7 +119,12 @@ public class JInputUtils {
 
         try {
 
-            if (isAssignableFrom("AWTKeyboard", controller) || isAssignableFrom("AWTMouse", controller)) {
+            if (controller instanceof Closeable) {
+
+                // Controllers that are implemented in this library
+                ((Closeable) controller).close();
+
+            } else if (isAssignableFrom("AWTKeyboard", controller) || isAssignableFrom("AWTMouse", controller)) {
 
                 // Java (all)
                 Toolkit.getDefaultToolkit().removeAWTEventListener((AWTEventListener) controller);
@@ -198,48 +205,20 @@ public class JInputUtils {
     public static CloseableController getControllerOrTimeout(final int matlabId, long timeout, TimeUnit unit, final TypeMatcher typeMatcher) throws InterruptedException, ExecutionException, TimeoutException {
 
         Future<CloseableController> getControllerFuture = lookupExecutor.submit(new Callable<CloseableController>() {
-            int id = matlabId; // 1 indexed
 
             @Override
             public CloseableController call() throws Exception {
 
-                Controller[] controllers;
-                List<Thread> addedHooks = new ArrayList<Thread>(16);
-
-                // Create environment and remove any shutdown hooks that were added
-                Class clazz = Class.forName("java.lang.ApplicationShutdownHooks");
-                Field hookField = clazz.getDeclaredField("hooks");
-                hookField.setAccessible(true);
-                @SuppressWarnings("unchecked")
-                IdentityHashMap<Thread, Thread> hooks = (IdentityHashMap<Thread, Thread>) hookField.get(null);
-                synchronized (clazz) { // static add/remove methods synchronize on class object
-
-                    // Create new environment
-                    List<Thread> previousHooks = new ArrayList<Thread>(hooks.keySet());
-                    controllers = JInputUtils.createDefaultEnvironment().getControllers();
-
-                    // Get all newly added hooks
-                    addedHooks.addAll(hooks.keySet());
-                    addedHooks.removeAll(previousHooks);
-
-                    // Remove new hooks from app shutdown
-                    for (Thread hook : addedHooks) {
-                        hooks.remove(hook);
-                        hook.setDaemon(true);
-                    }
-
+                // Use the result of a recent preload if there is one
+                Environment environment = takePreloadedEnvironment();
+                if (environment != null) {
+                    CloseableController controller = environment.find(matlabId, typeMatcher);
+                    if (controller != null)
+                        return controller;
                 }
 
-                // Find controller
-                for (Controller controller : controllers) {
-                    if (typeMatcher.matches(controller.getType()) && --id == 0) {
-                        return new CloseableController(controller, addedHooks);
-                    }
-                }
-
-                // Run shutdown hooks in case controller was not found
-                runShutdownHooks(addedHooks);
-                return null;
+                // Scan again in case the device was connected after the preload
+                return new Environment().find(matlabId, typeMatcher);
 
             }
         });
@@ -251,7 +230,174 @@ public class JInputUtils {
         }
     }
 
-    private static final ExecutorService lookupExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+    /**
+     * Loads classes and native libraries, and scans for devices in the background, so that the
+     * first device can be opened as fast as subsequent ones. Meant to be called right after
+     * the library is added to the class path. The scan result is used by the next lookup if
+     * it happens within a few seconds. Older results may no longer match the connected
+     * devices, so they get discarded and their native resources released.
+     */
+    public static void preload() {
+        synchronized (JInputUtils.class) {
+            if (preloadFuture != null)
+                return;
+            preloadFuture = lookupExecutor.submit(new Callable<Object>() {
+                @Override
+                public Object call() throws Exception {
+
+                    // Load classes that are needed for opening a device
+                    Class.forName(HebiJoystick.class.getName());
+                    Class.forName(HebiKeyboard.class.getName());
+                    Class.forName(SharedController.class.getName());
+                    Class.forName(EventBuffer.class.getName());
+
+                    // Loads native libraries and scans for devices
+                    final Environment environment = new Environment();
+                    synchronized (JInputUtils.class) {
+                        preloadedEnvironment = environment;
+                    }
+
+                    // Release the native resources if there is no lookup in time, e.g., when only using AWT keyboards
+                    lookupExecutor.schedule(new Runnable() {
+                        @Override
+                        public void run() {
+                            synchronized (JInputUtils.class) {
+                                if (preloadedEnvironment != environment)
+                                    return;
+                                preloadedEnvironment = null;
+                            }
+                            environment.dispose();
+                        }
+                    }, PRELOAD_MAX_AGE_NS, TimeUnit.NANOSECONDS);
+                    return null;
+
+                }
+            });
+        }
+    }
+
+    /**
+     * Waits for a preload to finish
+     *
+     * @return false if the preload has not been started or did not finish within the timeout
+     */
+    static boolean awaitPreload(long timeout, TimeUnit unit) throws InterruptedException {
+        final Future<?> future;
+        synchronized (JInputUtils.class) {
+            future = preloadFuture;
+        }
+        if (future == null)
+            return false;
+        try {
+            future.get(timeout, unit);
+            return true;
+        } catch (ExecutionException e) {
+            return true; // the lookup will try again
+        } catch (TimeoutException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return preloaded environment, or null if there is none or if it is too old
+     */
+    private static Environment takePreloadedEnvironment() {
+        final Environment environment;
+        synchronized (JInputUtils.class) {
+            environment = preloadedEnvironment;
+            preloadedEnvironment = null;
+        }
+        if (environment != null && System.nanoTime() - environment.createdNanos > PRELOAD_MAX_AGE_NS) {
+            environment.dispose();
+            return null;
+        }
+        return environment;
+    }
+
+    private static Future<?> preloadFuture = null;
+    private static Environment preloadedEnvironment = null;
+    private static final long PRELOAD_MAX_AGE_NS = TimeUnit.SECONDS.toNanos(5);
+
+    /**
+     * Controllers of a new default environment and the shutdown hooks that it added
+     */
+    private static class Environment {
+
+        Environment() throws Exception {
+
+            // Create environment and remove any shutdown hooks that were added
+            Class clazz = Class.forName("java.lang.ApplicationShutdownHooks");
+            Field hookField = clazz.getDeclaredField("hooks");
+            hookField.setAccessible(true);
+            @SuppressWarnings("unchecked")
+            IdentityHashMap<Thread, Thread> hooks = (IdentityHashMap<Thread, Thread>) hookField.get(null);
+            synchronized (clazz) { // static add/remove methods synchronize on class object
+
+                // Create new environment
+                List<Thread> previousHooks = new ArrayList<Thread>(hooks.keySet());
+                controllers = JInputUtils.createDefaultEnvironment().getControllers();
+
+                // Get all newly added hooks
+                addedHooks.addAll(hooks.keySet());
+                addedHooks.removeAll(previousHooks);
+
+                // Remove new hooks from app shutdown
+                for (Thread hook : addedHooks) {
+                    hooks.remove(hook);
+                    hook.setDaemon(true);
+                }
+
+            }
+            createdNanos = System.nanoTime();
+
+        }
+
+        /**
+         * @return the n-th controller of the matching type, or null if it was not found
+         */
+        CloseableController find(int matlabId, TypeMatcher typeMatcher) {
+            int id = matlabId; // 1 indexed
+
+            // Find controller
+            for (int i = 0; i < controllers.length; i++) {
+                if (typeMatcher.matches(controllers[i].getType()) && --id == 0) {
+                    return new CloseableController(controllers[i], addedHooks, getDeviceId(i));
+                }
+            }
+
+            // Run shutdown hooks in case controller was not found
+            dispose();
+            return null;
+        }
+
+        /**
+         * Releases the native resources of all controllers
+         */
+        void dispose() {
+            runShutdownHooks(addedHooks);
+        }
+
+        /**
+         * Identical devices often report the same port, so the id includes the position
+         * among devices with the same name, type, and port
+         */
+        private String getDeviceId(int index) {
+            final String id = CloseableController.getDefaultDeviceId(controllers[index]);
+            int ordinal = 0;
+            for (int i = 0; i < index; i++) {
+                if (id.equals(CloseableController.getDefaultDeviceId(controllers[i])))
+                    ordinal++;
+            }
+            return id + "#" + ordinal;
+        }
+
+        final Controller[] controllers;
+        final List<Thread> addedHooks = new ArrayList<Thread>(16);
+        final long createdNanos;
+
+    }
+
+    private static final ScheduledExecutorService lookupExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
         @Override
         public Thread newThread(Runnable r) {
             Thread t = new Thread(r);
@@ -261,6 +407,24 @@ public class JInputUtils {
         }
     });
 
+    /**
+     * Opens a device via the pure Java evdev driver (Linux only)
+     *
+     * @return controller or null if no matching device was found
+     */
+    static CloseableController createEvdevController(int matlabId, TypeMatcher typeMatcher) {
+        try {
+            EvdevController controller = EvdevController.open(matlabId, typeMatcher);
+            if (controller == null)
+                return null;
+            String deviceId = "evdev|" + controller.getPath() + "|" + controller.getName();
+            return new CloseableController(controller, Collections.<Thread>emptyList(), deviceId);
+        } catch (IOException e) {
+            throw new MatlabError("Could not open event device. Make sure that the user has read " +
+                    "permissions for /dev/input/event* (e.g. 'input' group). Message: " + e.getMessage());
+        }
+    }
+
     public static CloseableController createAWTKeyboard() {
         // AWTKeyboard is non public and AWTEnvironmentPlugin instantiates a mouse that we would need to clean up.
         Controller keyboard = null;
@@ -0,0 +1,81 @@
+package us.hebi.matlab.input;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Decodes Linux 'js_event' structs from a channel that is opened on /dev/input/js*.
+ * The joydev interface scales absolute axes by their range, which is otherwise only
+ * available via ioctl calls, so the values are correct from the first event. Opening
+ * the device also produces one initial event for every axis and button.
+ * <p>
+ * struct js_event {
+ * __u32 time; // milliseconds
+ * __s16 value;
+ * __u8 type;
+ * __u8 number;
+ * };
+ *
+ * @since 19 Oct 2026
+ */
+final class JoydevDecoder {
+
+    interface Listener {
+        void onJoydevEvent(int type, int number, int value);
+    }
+
+    // Event types (linux/joystick.h)
+    static final int JS_EVENT_BUTTON = 0x01;
+    static final int JS_EVENT_AXIS = 0x02;
+    static final int JS_EVENT_INIT = 0x80;
+
+    // Axes are scaled to [-32767, 32767]
+    static final float AXIS_SCALE = 32767f;
+
+    static final int EVENT_SIZE = 8;
+
+    JoydevDecoder(ReadableByteChannel channel, int batchSize) {
+        if (channel == null)
+            throw new IllegalArgumentException("null argument");
+        if (batchSize <= 0)
+            throw new IllegalArgumentException("batch size must be positive");
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(EVENT_SIZE * batchSize).order(ByteOrder.nativeOrder());
+    }
+
+    JoydevDecoder(ReadableByteChannel channel) {
+        this(channel, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Reads the next batch of bytes from the channel and decodes all complete
+     * events. Incomplete trailing bytes are kept for the next call.
+     *
+     * @return number of decoded events, or -1 if the end of the stream was reached
+     */
+    int read(Listener listener) throws IOException {
+        if (channel.read(buffer) < 0)
+            return -1;
+
+        buffer.flip();
+        int count = 0;
+        for (int pos = buffer.position(); buffer.limit() - pos >= EVENT_SIZE; pos += EVENT_SIZE) {
+            final int value = buffer.getShort(pos + 4);
+            final int type = buffer.get(pos + 6) & 0xFF;
+            final int number = buffer.get(pos + 7) & 0xFF;
+            listener.onJoydevEvent(type, number, value);
+            buffer.position(pos + EVENT_SIZE);
+            count++;
+        }
+        buffer.compact();
+        return count;
+    }
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer;
+
+    private static final int DEFAULT_BATCH_SIZE = 64;
+
+}
@@ -3,14 +3,114 @@ package us.hebi.matlab.input;
 import net.java.games.input.Component;
 import net.java.games.input.Controller;
 import net.java.games.input.ControllerEnvironment;
+import net.java.games.input.Event;
+import net.java.games.input.EventQueue;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
 
 /**
+ * Command line tool for listing devices and for qualifying devices outside of MATLAB,
+ * e.g., new gamepads or USB hubs. The monitor mode polls a device at a fixed rate
+ * and reports the event rate, poll and drain timing, the largest number of events
+ * per poll, and the number of polls that likely overflowed the event queue.
+ * <p>
+ * Usage:
+ * <pre>
+ * java -cp matlab-input.jar us.hebi.matlab.input.ListDevicesApp [options]
+ *
+ *   --monitor index   monitors the n-th device of the selected type (1 indexed)
+ *   --type name       joystick (default), keyboard, or any
+ *   --driver name     native (default) or evdev
+ *   --duration sec    total monitoring time (default 10)
+ *   --window sec      reporting window (default 1)
+ *   --rate hz         poll rate (default 100)
+ *   --queue size      event queue size (default 200)
+ *   --csv             prints comma separated values
+ * </pre>
+ * Without the monitor option all devices and their components get listed.
+ *
  * @author Florian Enner < florian @ hebirobotics.com >
  * @since 26 Jan 2017
  */
 public class ListDevicesApp {
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws InterruptedException {
+
+        int monitorId = 0;
+        String type = "joystick";
+        String driver = "native";
+        double duration = 10;
+        double window = 1;
+        double rate = 100;
+        int queueSize = 200;
+        boolean csv = false;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if ("--monitor".equals(arg)) {
+                    monitorId = parsePositiveInt(arg, args[++i]);
+                } else if ("--type".equals(arg)) {
+                    type = args[++i];
+                } else if ("--driver".equals(arg)) {
+                    driver = args[++i];
+                } else if ("--duration".equals(arg)) {
+                    duration = parsePositive(arg, args[++i]);
+                } else if ("--window".equals(arg)) {
+                    window = parsePositive(arg, args[++i]);
+                } else if ("--rate".equals(arg)) {
+                    rate = parsePositive(arg, args[++i]);
+                } else if ("--queue".equals(arg)) {
+                    queueSize = parsePositiveInt(arg, args[++i]);
+                } else if ("--csv".equals(arg)) {
+                    csv = true;
+                } else {
+                    throw new IllegalArgumentException("Unknown option: " + arg);
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Invalid arguments. " + e.getMessage());
+            System.err.println("Options: --monitor index, --type joystick|keyboard|any, --driver native|evdev, " +
+                    "--duration sec, --window sec, --rate hz, --queue size, --csv");
+            System.exit(1);
+        }
+
+        if (monitorId > 0) {
+            monitor(monitorId, getTypeMatcher(type), driver, duration, window, rate, queueSize, csv);
+        } else {
+            listDevices();
+        }
+
+    }
+
+    private static double parsePositive(String option, String value) {
+        final double result = Double.parseDouble(value);
+        if (!(result > 0) || Double.isInfinite(result))
+            throw new IllegalArgumentException(option + " must be positive: " + value);
+        return result;
+    }
+
+    private static int parsePositiveInt(String option, String value) {
+        final int result = Integer.parseInt(value);
+        if (result <= 0)
+            throw new IllegalArgumentException(option + " must be positive: " + value);
+        return result;
+    }
+
+    private static void listDevices() throws InterruptedException {
+
+        // Startup time, i.e., class loading, native library loading, and the first scan
+        long start = System.nanoTime();
+        JInputUtils.preload();
+        final boolean isPreloaded = JInputUtils.awaitPreload(30, TimeUnit.SECONDS);
+        final long coldStartNs = System.nanoTime() - start;
+
+        // Time of subsequent scans
+        start = System.nanoTime();
+        JInputUtils.createDefaultEnvironment().getControllers();
+        final long warmStartNs = System.nanoTime() - start;
 
         Controller[] controllers = ControllerEnvironment.getDefaultEnvironment().getControllers();
 
@@ -26,6 +126,216 @@ public class ListDevicesApp {
             System.out.println(controller + " ==> " + controller.getType());
         }
 
+        System.out.println("-------- Startup --------");
+        if (isPreloaded) {
+            System.out.println(String.format("First scan (incl. loading): %.1f ms", coldStartNs / 1E6));
+        } else {
+            System.out.println(String.format("First scan (incl. loading): did not finish within %.1f s", coldStartNs / 1E9));
+        }
+        System.out.println(String.format("Subsequent scan: %.1f ms", warmStartNs / 1E6));
+
+    }
+
+    private static void monitor(int matlabId, TypeMatcher typeMatcher, String driver,
+                                double duration, double window, double rate, int queueSize,
+                                boolean csv) throws InterruptedException {
+
+        // Open device
+        final CloseableController controller;
+        try {
+            if ("evdev".equalsIgnoreCase(driver)) {
+                controller = JInputUtils.createEvdevController(matlabId, typeMatcher);
+            } else if ("native".equalsIgnoreCase(driver)) {
+                controller = JInputUtils.getControllerOrTimeout(matlabId, 5, TimeUnit.SECONDS, typeMatcher);
+            } else {
+                throw new IllegalArgumentException("Unknown driver: " + driver);
+            }
+        } catch (Exception e) {
+            System.err.println("Could not open device. Message: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        if (controller == null) {
+            System.err.println("Device is not connected.");
+            System.exit(1);
+            return;
+        }
+        controller.setEventQueueSize(queueSize);
+
+        final boolean isEventSource = "evdev".equalsIgnoreCase(driver);
+        final EventBuffer buffer = new EventBuffer(queueSize);
+        final Event event = new Event();
+        final long periodNs = (long) (1E9 / rate);
+        final long windowNs = (long) (window * 1E9);
+        final long endNs = System.nanoTime() + (long) (duration * 1E9);
+        final Stats total = new Stats((int) (rate * duration) + 1);
+        final Stats current = new Stats((int) (rate * window) + 1);
+
+        System.out.println((csv ? "# " : "") + "Monitoring " + controller.getName()
+                + " (" + controller.getType() + ") at " + rate + " Hz with queue size " + queueSize);
+        System.out.println(csv ? Stats.CSV_HEADER : Stats.HEADER);
+
+        try {
+            final long monitorStart = System.nanoTime();
+            long windowStart = monitorStart;
+            long nextPoll = windowStart;
+            while (nextPoll < endNs) {
+
+                // Poll device
+                final long t0 = System.nanoTime();
+                if (!controller.poll()) {
+                    System.err.println("Failed to poll device");
+                    break;
+                }
+                final long t1 = System.nanoTime();
+
+                // Drain events
+                int events = 0;
+                if (isEventSource) {
+                    final long before = buffer.getWriteIndex();
+                    controller.drainEvents(buffer);
+                    events = (int) (buffer.getWriteIndex() - before);
+                } else {
+                    EventQueue queue = controller.getEventQueue();
+                    while (queue.getNextEvent(event)) {
+                        events++;
+                    }
+                }
+                final long t2 = System.nanoTime();
+
+                // A full queue most likely dropped events
+                final boolean overflow = events >= queueSize;
+                total.add(t1 - t0, t2 - t1, events, overflow);
+                current.add(t1 - t0, t2 - t1, events, overflow);
+
+                // Report window
+                if (t2 - windowStart >= windowNs) {
+                    System.out.println(current.format(t2 - windowStart, csv));
+                    current.clear();
+                    windowStart = t2;
+                }
+
+                // Wait for next poll
+                nextPoll += periodNs;
+                Timing.sleepUntil(nextPoll);
+
+            }
+
+            // Report the last partial window, and use the actual time in case the loop ended early
+            final long monitorEnd = System.nanoTime();
+            if (current.getCount() > 0)
+                System.out.println(current.format(monitorEnd - windowStart, csv));
+            System.out.println((csv ? "# " : "") + "-------- Total --------");
+            System.out.println(total.format(monitorEnd - monitorStart, csv));
+
+        } finally {
+            controller.close();
+        }
+
+    }
+
+    private static TypeMatcher getTypeMatcher(final String type) {
+        if ("joystick".equalsIgnoreCase(type)) {
+            return new TypeMatcher() {
+                @Override
+                public boolean matches(Controller.Type type) {
+                    return type == Controller.Type.GAMEPAD ||
+                            type == Controller.Type.STICK ||
+                            type == Controller.Type.FINGERSTICK ||
+                            type == Controller.Type.WHEEL;
+                }
+            };
+        } else if ("keyboard".equalsIgnoreCase(type)) {
+            return new TypeMatcher() {
+                @Override
+                public boolean matches(Controller.Type type) {
+                    return type == Controller.Type.KEYBOARD;
+                }
+            };
+        } else if ("any".equalsIgnoreCase(type)) {
+            return new TypeMatcher() {
+                @Override
+                public boolean matches(Controller.Type type) {
+                    return true;
+                }
+            };
+        }
+        throw new IllegalArgumentException("Unknown type: " + type);
+    }
+
+    /**
+     * Timing and event statistics over a window of polls
+     */
+    private static class Stats {
+
+        Stats(int expectedPolls) {
+            pollNs = new long[expectedPolls];
+            drainNs = new long[expectedPolls];
+        }
+
+        void add(long pollTime, long drainTime, int events, boolean overflow) {
+            if (count == pollNs.length) {
+                pollNs = Arrays.copyOf(pollNs, count * 2);
+                drainNs = Arrays.copyOf(drainNs, count * 2);
+            }
+            pollNs[count] = pollTime;
+            drainNs[count] = drainTime;
+            count++;
+            this.events += events;
+            maxBurst = Math.max(maxBurst, events);
+            if (overflow) overflows++;
+        }
+
+        int getCount() {
+            return count;
+        }
+
+        void clear() {
+            count = 0;
+            events = 0;
+            maxBurst = 0;
+            overflows = 0;
+        }
+
+        String format(long elapsedNs, boolean csv) {
+            long[] poll = Arrays.copyOf(pollNs, count);
+            long[] drain = Arrays.copyOf(drainNs, count);
+            Arrays.sort(poll);
+            Arrays.sort(drain);
+            double eventRate = events / (elapsedNs / 1E9);
+            String format = csv ? CSV_FORMAT : FORMAT;
+            return String.format(Locale.US, format, count, events, eventRate,
+                    micros(poll, 0.5), micros(poll, 0.9), micros(poll, 0.99), micros(poll, 1),
+                    micros(drain, 0.5), micros(drain, 0.9), micros(drain, 0.99), micros(drain, 1),
+                    maxBurst, overflows);
+        }
+
+        private static double micros(long[] sorted, double percentile) {
+            if (sorted.length == 0)
+                return 0;
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1E3;
+        }
+
+        private long[] pollNs;
+        private long[] drainNs;
+        private int count = 0;
+        private long events = 0;
+        private int maxBurst = 0;
+        private int overflows = 0;
+
+        static final String HEADER = String.format(Locale.US, "%6s %7s %9s | %-37s | %-37s | %6s %9s",
+                "polls", "events", "events/s",
+                "poll us (p50 / p90 / p99 / max)",
+                "drain us (p50 / p90 / p99 / max)",
+                "burst", "overflows");
+        static final String FORMAT = "%6d %7d %9.1f | %7.1f / %7.1f / %7.1f / %7.1f | %7.1f / %7.1f / %7.1f / %7.1f | %6d %9d";
+        static final String CSV_HEADER = "polls,events,events_per_s," +
+                "poll_p50_us,poll_p90_us,poll_p99_us,poll_max_us," +
+                "drain_p50_us,drain_p90_us,drain_p99_us,drain_max_us," +
+                "max_burst,overflows";
+        static final String CSV_FORMAT = "%d,%d,%.1f,%.1f,%.1f,%.1f,%.1f,%.1f,%.1f,%.1f,%.1f,%d,%d";
+
     }
 
 }
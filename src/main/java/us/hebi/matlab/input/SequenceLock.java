@@ -0,0 +1,56 @@
+package us.hebi.matlab.input;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sequence lock for publishing snapshots from a single writer to readers
+ * without blocking either side. The version is odd while a write is in
+ * progress, and readers retry if the version changed while they copied.
+ * <p>
+ * Java 6 does not expose memory fences, so this version relies on the full
+ * barrier semantics of atomic updates. There is a faster implementation
+ * for Java 9+ in the versioned part of the multi-release jar.
+ *
+ * @since 19 Oct 2026
+ */
+final class SequenceLock {
+
+    void beginWrite() {
+        // Atomic update prevents the following data writes from moving ahead
+        version.incrementAndGet();
+    }
+
+    void endWrite() {
+        version.incrementAndGet();
+    }
+
+    /**
+     * @return version to be validated after reading the data
+     */
+    long beginRead() {
+        long value = version.get();
+        while ((value & 1) != 0) {
+            Timing.onSpinWait();
+            value = version.get();
+        }
+        return value;
+    }
+
+    /**
+     * @return true if no write happened since the corresponding beginRead
+     */
+    boolean validate(long readVersion) {
+        // Atomic update prevents the preceding data reads from moving behind
+        return version.compareAndSet(readVersion, readVersion);
+    }
+
+    /**
+     * @return current version, e.g., for detecting changes
+     */
+    long getVersion() {
+        return version.get();
+    }
+
+    private final AtomicLong version = new AtomicLong();
+
+}
@@ -0,0 +1,225 @@
+package us.hebi.matlab.input;
+
+import net.java.games.input.Component;
+
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reference counted wrapper that lets multiple MATLAB objects share a single
+ * native device. Users frequently create the same joystick several times, e.g.,
+ * by re-running a script without clearing the workspace. On some platforms
+ * multiple native handles for the same device compete for events, and each
+ * open handle holds native resources.
+ * <p>
+ * All handles acquired for the same physical device share one controller and
+ * one event buffer. Whichever handle polls first drains the device queue into
+ * the shared buffer, and each handle consumes events through its own cursor. The
+ * native device gets closed once the last handle is closed.
+ * <p>
+ * New handles replay the retained events of absolute components so that they
+ * start with the recent state of the device. Events of relative components
+ * (e.g. mouse motion) are deltas that happened before the handle existed, so
+ * they are skipped.
+ * <p>
+ * Entries are keyed by the identity of the device (see {@link CloseableController#getDeviceId()})
+ * rather than by the MATLAB index, so every acquire resolves the index with a fresh
+ * lookup. This keeps hot-plugging working, i.e., an index that refers to a different
+ * device after a reconnect does not return the old device, and entries whose device
+ * stopped responding get replaced rather than reused.
+ *
+ * @since 19 Oct 2026
+ */
+final class SharedController {
+
+    interface Factory {
+        CloseableController create();
+    }
+
+    /**
+     * Opens the device using the factory and returns a new handle to it. If the same
+     * device is already open and still connected, the new controller gets closed and
+     * the handle shares the existing one.
+     *
+     * @param driver  name of the driver, e.g., "joystick:native"
+     * @param factory looks up and opens the device
+     * @return handle that needs to be closed after use
+     */
+    static Handle acquire(String driver, Factory factory) {
+        final CloseableController controller = factory.create();
+        final String key = driver + ":" + controller.getDeviceId();
+        final Handle handle;
+        synchronized (registry) {
+            SharedController shared = registry.get(key);
+
+            // Drop entries of disconnected devices. Existing handles keep them until they get closed.
+            if (shared != null && !shared.isConnected()) {
+                registry.remove(key);
+                shared = null;
+            }
+
+            if (shared == null) {
+                shared = new SharedController(key, controller);
+                registry.put(key, shared);
+                return shared.newHandle();
+            }
+            handle = shared.newHandle();
+        }
+
+        // Already open, so release the duplicate
+        controller.close();
+        return handle;
+    }
+
+    private SharedController(String key, CloseableController controller) {
+        this.key = key;
+        this.controller = controller;
+    }
+
+    private synchronized Handle newHandle() {
+        references++;
+        return new Handle(buffer.newCursor(), buffer.getWriteIndex());
+    }
+
+    /**
+     * @return false if the device can no longer be polled
+     */
+    private synchronized boolean isConnected() {
+        try {
+            return controller.drainEvents(buffer);
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private synchronized void setEventQueueSize(int size) {
+        if (size <= buffer.getCapacity())
+            return;
+        controller.setEventQueueSize(size);
+        buffer.ensureCapacity(size);
+    }
+
+    private void release() {
+        synchronized (registry) {
+            synchronized (this) {
+                if (--references > 0)
+                    return;
+                if (registry.get(key) == this)
+                    registry.remove(key);
+                if (forceFeedback == null || forceFeedback.close()) {
+                    controller.close();
+                    return;
+                }
+
+                // The force feedback thread is stuck in a native call, so release the device once it returns
+                final ForceFeedback stuck = forceFeedback;
+                Thread closer = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            stuck.awaitClosed();
+                            controller.close();
+                        } catch (InterruptedException e) {
+                            System.err.println("Failed to close device after force feedback timed out");
+                        }
+                    }
+                });
+                closer.setDaemon(true);
+                closer.setName("HebiJoystick Device Closer");
+                closer.start();
+            }
+        }
+    }
+
+    final class Handle implements Closeable {
+
+        private Handle(EventBuffer.Cursor cursor, long firstNewIndex) {
+            this.cursor = cursor;
+            this.firstNewIndex = firstNewIndex;
+        }
+
+        /**
+         * Drains pending device events into the shared buffer
+         *
+         * @return false if the device could not be polled
+         */
+        boolean poll() {
+            synchronized (SharedController.this) {
+                if (isClosed)
+                    throw new MatlabError("Device error: Closed or invalid device");
+                return controller.drainEvents(buffer);
+            }
+        }
+
+        /**
+         * Advances to the next event that has not been seen by this handle
+         *
+         * @return false if there are no more events
+         */
+        boolean nextEvent() {
+            synchronized (SharedController.this) {
+                while (cursor.next()) {
+                    if (cursor.getIndex() < firstNewIndex && cursor.getComponent().isRelative())
+                        continue;
+                    return true;
+                }
+                return false;
+            }
+        }
+
+        Component getComponent() {
+            return cursor.getComponent();
+        }
+
+        float getValue() {
+            return cursor.getValue();
+        }
+
+        CloseableController getController() {
+            return controller;
+        }
+
+        /**
+         * @return force feedback output that is shared by all handles of this device
+         */
+        ForceFeedback getForceFeedback() {
+            synchronized (SharedController.this) {
+                if (forceFeedback == null)
+                    forceFeedback = new ForceFeedback(controller.getRumblers());
+                return forceFeedback;
+            }
+        }
+
+        void setEventQueueSize(int size) {
+            SharedController.this.setEventQueueSize(size);
+        }
+
+        @Override
+        public void close() {
+            synchronized (SharedController.this) {
+                if (isClosed)
+                    return;
+                isClosed = true;
+            }
+            release();
+        }
+
+        private final EventBuffer.Cursor cursor;
+        private final long firstNewIndex;
+        private boolean isClosed = false;
+
+    }
+
+    private final String key;
+    private final CloseableController controller;
+    private final EventBuffer buffer = new EventBuffer(DEFAULT_BUFFER_SIZE);
+    private ForceFeedback forceFeedback = null;
+    private int references = 0;
+
+    // Matches JInput's default event queue size
+    private static final int DEFAULT_BUFFER_SIZE = 32;
+
+    private static final Map<String, SharedController> registry = new HashMap<String, SharedController>();
+
+}
@@ -0,0 +1,118 @@
+package us.hebi.matlab.input;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Fixed layout binary representation of a device state that gets sent by
+ * {@link StateStreamer} and decoded by {@link StateReceiver}. All values are
+ * big-endian (network byte order).
+ * <pre>
+ * int32   magic ('HEBI')
+ * uint8   version
+ * uint8   kind (1 = joystick, 2 = keyboard)
+ * int16   reserved
+ * int64   sequence number (increments with every published state)
+ * int64   timestamp (milliseconds since epoch)
+ * int16   number of axes
+ * int16   number of buttons
+ * int16   number of povs
+ * float32 axes[]
+ * uint8   buttons[] (bit field, LSB first, 1 = pressed)
+ * int16   povs[] (degrees, -1 = centered)
+ * </pre>
+ * Keyboards are sent as buttons only. The first 122 buttons correspond to the
+ * 'keys' vector, followed by CTRL, ALT, SHIFT, CAPS_LOCK, TAB, SPACE, ESC, UP,
+ * LEFT, RIGHT, and DOWN.
+ *
+ * @since 19 Oct 2026
+ */
+public class StatePacket {
+
+    public static final byte KIND_JOYSTICK = 1;
+    public static final byte KIND_KEYBOARD = 2;
+
+    public byte kind;
+    public long sequence;
+    public long timeMillis;
+    public double[] axes;
+    public double[] buttons;
+    public double[] povs;
+
+    static int getSize(int numAxes, int numButtons, int numPovs) {
+        return HEADER_SIZE + 4 * numAxes + (numButtons + 7) / 8 + 2 * numPovs;
+    }
+
+    static void encode(ByteBuffer buffer, byte kind, long sequence, long timeMillis,
+                       double[] axes, int numAxes,
+                       double[] buttons, int numButtons,
+                       double[] povs, int numPovs) {
+
+        buffer.putInt(MAGIC);
+        buffer.put(VERSION);
+        buffer.put(kind);
+        buffer.putShort((short) 0);
+        buffer.putLong(sequence);
+        buffer.putLong(timeMillis);
+        buffer.putShort((short) numAxes);
+        buffer.putShort((short) numButtons);
+        buffer.putShort((short) numPovs);
+
+        for (int i = 0; i < numAxes; i++) {
+            buffer.putFloat((float) axes[i]);
+        }
+        for (int i = 0; i < numButtons; i += 8) {
+            int bits = 0;
+            for (int bit = 0; bit < 8 && i + bit < numButtons; bit++) {
+                if (buttons[i + bit] != 0)
+                    bits |= 1 << bit;
+            }
+            buffer.put((byte) bits);
+        }
+        for (int i = 0; i < numPovs; i++) {
+            buffer.putShort((short) povs[i]);
+        }
+
+    }
+
+    /**
+     * @return decoded packet or null if the data is not a valid packet
+     */
+    static StatePacket decode(ByteBuffer buffer) {
+        try {
+            if (buffer.getInt() != MAGIC || buffer.get() != VERSION)
+                return null;
+
+            StatePacket packet = new StatePacket();
+            packet.kind = buffer.get();
+            buffer.getShort(); // reserved
+            packet.sequence = buffer.getLong();
+            packet.timeMillis = buffer.getLong();
+            packet.axes = new double[buffer.getShort() & 0xFFFF];
+            packet.buttons = new double[buffer.getShort() & 0xFFFF];
+            packet.povs = new double[buffer.getShort() & 0xFFFF];
+
+            for (int i = 0; i < packet.axes.length; i++) {
+                packet.axes[i] = buffer.getFloat();
+            }
+            for (int i = 0; i < packet.buttons.length; i += 8) {
+                final int bits = buffer.get();
+                for (int bit = 0; bit < 8 && i + bit < packet.buttons.length; bit++) {
+                    packet.buttons[i + bit] = (bits >> bit) & 1;
+                }
+            }
+            for (int i = 0; i < packet.povs.length; i++) {
+                packet.povs[i] = buffer.getShort();
+            }
+            return packet;
+
+        } catch (BufferUnderflowException e) {
+            return null;
+        }
+    }
+
+    static final int MAGIC = 0x48454249; // 'HEBI'
+    static final byte VERSION = 1;
+    static final int HEADER_SIZE = 30;
+
+}
@@ -0,0 +1,69 @@
+package us.hebi.matlab.input;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+
+/**
+ * Receives device states that were sent by a streaming HebiJoystick or
+ * HebiKeyboard. Packets that are invalid or older than the most recently
+ * received state are dropped, so each device should stream to its own port.
+ * <p>
+ * Example:
+ * <pre>
+ * StateReceiver receiver = new StateReceiver(5500);
+ * while (true) {
+ *     StatePacket state = receiver.receive();
+ *     System.out.println(Arrays.toString(state.axes));
+ * }
+ * </pre>
+ *
+ * @since 19 Oct 2026
+ */
+public class StateReceiver implements Closeable {
+
+    /**
+     * @param port local port to listen on, or 0 to pick any free port
+     */
+    public StateReceiver(int port) throws IOException {
+        channel = DatagramChannel.open();
+        channel.socket().bind(new InetSocketAddress(port));
+    }
+
+    public int getPort() {
+        return channel.socket().getLocalPort();
+    }
+
+    /**
+     * Blocks until the next valid state arrives
+     */
+    public StatePacket receive() throws IOException {
+        while (true) {
+            buffer.clear();
+            channel.receive(buffer);
+            buffer.flip();
+
+            // Drop invalid and out of order packets. A sequence of 1 means that the sender restarted.
+            StatePacket packet = StatePacket.decode(buffer);
+            if (packet == null || (packet.sequence <= lastSequence && packet.sequence != 1))
+                continue;
+
+            lastSequence = packet.sequence;
+            return packet;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private final DatagramChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(MAX_PACKET_SIZE);
+    private long lastSequence = 0;
+
+    private static final int MAX_PACKET_SIZE = 65507;
+
+}
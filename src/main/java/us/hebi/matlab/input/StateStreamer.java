@@ -0,0 +1,187 @@
+package us.hebi.matlab.input;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Streams device states to other processes via UDP, e.g., to robot-side code
+ * running on the same machine. See {@link StatePacket} for the binary layout.
+ * <p>
+ * Publishing only copies the state into a pending slot and returns without
+ * taking any locks, so it does not add latency to reads. A background thread
+ * serializes and sends the most recent state. States that are published faster than they can be sent get
+ * coalesced, which the receiver can detect via gaps in the sequence number.
+ *
+ * @since 19 Oct 2026
+ */
+class StateStreamer implements Closeable {
+
+    StateStreamer(String host, int port) throws IOException {
+        this.target = new InetSocketAddress(host, port);
+        if (((InetSocketAddress) target).isUnresolved())
+            throw new IOException("Unknown host: " + host);
+        channel = DatagramChannel.open();
+        sender.setDaemon(true);
+        sender.setName("HebiJoystick State Streamer");
+        sender.start();
+    }
+
+    /**
+     * Stores a copy of the state to be sent by the background thread. Does not
+     * block, but only one thread may publish at a time.
+     */
+    void publish(byte kind, double[] axes, double[] buttons, double[] povs) {
+        lock.beginWrite();
+        pending.set(kind, axes, buttons, povs);
+        pending.sequence = ++sequence;
+        pending.timeMillis = System.currentTimeMillis();
+        lock.endWrite();
+        LockSupport.unpark(sender);
+    }
+
+    @Override
+    public void close() {
+        if (isClosed)
+            return;
+        isClosed = true;
+        LockSupport.unpark(sender);
+        try {
+            sender.join(1000);
+        } catch (InterruptedException e) {
+            System.err.println("Closing state streamer timed out");
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                System.err.println("Failed to close state streamer. Message: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Blocks until a new state is available and copies it into the sending slot
+     *
+     * @return false if the thread should exit
+     */
+    private boolean awaitState() {
+        while (!isClosed && lock.getVersion() == sentVersion) {
+            LockSupport.park(this);
+        }
+        if (isClosed)
+            return false;
+
+        // Retry if the state changed while copying
+        long version;
+        do {
+            version = lock.beginRead();
+            sending.copyFrom(pending);
+        } while (!lock.validate(version));
+        sentVersion = version;
+        return true;
+    }
+
+    private final Thread sender = new Thread(new Runnable() {
+        @Override
+        public void run() {
+            while (awaitState()) {
+
+                final Slot slot = sending;
+                final int size = StatePacket.getSize(slot.numAxes, slot.numButtons, slot.numPovs);
+                if (buffer.capacity() < size)
+                    buffer = ByteBuffer.allocateDirect(size);
+
+                buffer.clear();
+                StatePacket.encode(buffer, slot.kind, slot.sequence, slot.timeMillis,
+                        slot.axes, slot.numAxes,
+                        slot.buttons, slot.numButtons,
+                        slot.povs, slot.numPovs);
+                buffer.flip();
+
+                try {
+                    channel.send(buffer, target);
+                } catch (IOException e) {
+                    // Nobody may be listening. Keep going for the next state.
+                }
+
+            }
+        }
+    });
+
+    /**
+     * Reusable storage for a copy of a state
+     */
+    private static class Slot {
+
+        void set(byte kind, double[] axes, double[] buttons, double[] povs) {
+            this.kind = kind;
+            this.axes = copy(axes, this.axes);
+            this.buttons = copy(buttons, this.buttons);
+            this.povs = copy(povs, this.povs);
+            numAxes = axes.length;
+            numButtons = buttons.length;
+            numPovs = povs.length;
+        }
+
+        /**
+         * Copies a slot that may be modified concurrently. Inconsistent copies
+         * get discarded by the sequence lock, so this only needs to not fail.
+         */
+        void copyFrom(Slot other) {
+            kind = other.kind;
+            sequence = other.sequence;
+            timeMillis = other.timeMillis;
+            final double[] otherAxes = other.axes;
+            final double[] otherButtons = other.buttons;
+            final double[] otherPovs = other.povs;
+            numAxes = Math.min(other.numAxes, otherAxes.length);
+            numButtons = Math.min(other.numButtons, otherButtons.length);
+            numPovs = Math.min(other.numPovs, otherPovs.length);
+            axes = copy(otherAxes, numAxes, axes);
+            buttons = copy(otherButtons, numButtons, buttons);
+            povs = copy(otherPovs, numPovs, povs);
+        }
+
+        private static double[] copy(double[] src, double[] dst) {
+            return copy(src, src.length, dst);
+        }
+
+        private static double[] copy(double[] src, int length, double[] dst) {
+            if (dst.length < length)
+                dst = new double[length];
+            System.arraycopy(src, 0, dst, 0, length);
+            return dst;
+        }
+
+        byte kind;
+        long sequence;
+        long timeMillis;
+        double[] axes = new double[0];
+        double[] buttons = new double[0];
+        double[] povs = new double[0];
+        int numAxes;
+        int numButtons;
+        int numPovs;
+
+    }
+
+    private final SocketAddress target;
+    private final DatagramChannel channel;
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(512);
+
+    // Written by the publisher (guarded by lock)
+    private final SequenceLock lock = new SequenceLock();
+    private final Slot pending = new Slot();
+    private long sequence = 0;
+
+    // Only accessed by the sender thread
+    private final Slot sending = new Slot();
+    private long sentVersion = 0;
+
+    private volatile boolean isClosed = false;
+
+}
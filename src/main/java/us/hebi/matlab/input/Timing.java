@@ -0,0 +1,33 @@
+package us.hebi.matlab.input;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timing utilities for polling loops. There is a more precise implementation
+ * for Java 9+ in the versioned part of the multi-release jar.
+ *
+ * @since 19 Oct 2026
+ */
+final class Timing {
+
+    /**
+     * Sleeps until System.nanoTime() reaches the deadline
+     */
+    static void sleepUntil(long deadlineNs) throws InterruptedException {
+        long remaining = deadlineNs - System.nanoTime();
+        while (remaining > 0) {
+            TimeUnit.NANOSECONDS.sleep(remaining);
+            remaining = deadlineNs - System.nanoTime();
+        }
+    }
+
+    /**
+     * Hint that the caller is busy waiting. Not available before Java 9.
+     */
+    static void onSpinWait() {
+    }
+
+    private Timing() {
+    }
+
+}
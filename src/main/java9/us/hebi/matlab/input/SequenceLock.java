@@ -0,0 +1,53 @@
+package us.hebi.matlab.input;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Java 9+ implementation of the sequence lock that uses explicit fences
+ * instead of atomic updates.
+ *
+ * @since 19 Oct 2026
+ */
+final class SequenceLock {
+
+    void beginWrite() {
+        VERSION.setOpaque(this, version + 1);
+        VarHandle.storeStoreFence();
+    }
+
+    void endWrite() {
+        VERSION.setRelease(this, version + 1);
+    }
+
+    long beginRead() {
+        long value = (long) VERSION.getAcquire(this);
+        while ((value & 1) != 0) {
+            Thread.onSpinWait();
+            value = (long) VERSION.getAcquire(this);
+        }
+        return value;
+    }
+
+    boolean validate(long readVersion) {
+        VarHandle.loadLoadFence();
+        return (long) VERSION.getOpaque(this) == readVersion;
+    }
+
+    long getVersion() {
+        return (long) VERSION.getAcquire(this);
+    }
+
+    private long version = 0;
+
+    private static final VarHandle VERSION;
+
+    static {
+        try {
+            VERSION = MethodHandles.lookup().findVarHandle(SequenceLock.class, "version", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+}
@@ -0,0 +1,37 @@
+package us.hebi.matlab.input;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Java 9+ implementation of the timing utilities. Parks for the bulk of the
+ * wait and spins for the remainder, which avoids the millisecond granularity
+ * of sleep on some platforms.
+ *
+ * @since 19 Oct 2026
+ */
+final class Timing {
+
+    static void sleepUntil(long deadlineNs) throws InterruptedException {
+        long remaining = deadlineNs - System.nanoTime();
+        while (remaining > SPIN_THRESHOLD_NS) {
+            LockSupport.parkNanos(remaining - SPIN_THRESHOLD_NS);
+            if (Thread.interrupted())
+                throw new InterruptedException();
+            remaining = deadlineNs - System.nanoTime();
+        }
+        while (deadlineNs - System.nanoTime() > 0) {
+            Thread.onSpinWait();
+        }
+    }
+
+    static void onSpinWait() {
+        Thread.onSpinWait();
+    }
+
+    private Timing() {
+    }
+
+    private static final long SPIN_THRESHOLD_NS = TimeUnit.MICROSECONDS.toNanos(100);
+
+}
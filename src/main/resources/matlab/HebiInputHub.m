@@ -0,0 +1,153 @@
+classdef (Sealed) HebiInputHub < handle
+    % HebiInputHub polls multiple input devices in the background
+    %
+    %   HebiInputHub polls keyboards, joysticks, and mice from a single
+    %   background thread at a fixed rate, so that loops using several
+    %   devices only need one read call per iteration.
+    %
+    %   The read method returns a cell array with one entry per device,
+    %   in the order in which the devices were added. Joysticks are
+    %   returned as {axes, buttons, povs}, keyboards as a struct in the
+    %   same format as HebiKeyboard's read method, and mice as a struct
+    %   with the accumulated x, y, and wheel movement and the buttons.
+    %   The sequence vector counts the state changes of each device.
+    %   A device that fails keeps its last state and reports a message
+    %   in the errors output, while the other devices keep updating.
+    %
+    %   HebiInputHub Methods:
+    %
+    %       addJoystick - opens a joystick and adds it to the hub
+    %       addKeyboard - opens a keyboard and adds it to the hub
+    %       addMouse    - opens a mouse and adds it to the hub
+    %       read        - returns the latest states of all devices
+    %       close       - closes the hub and all of its devices
+    %
+    %   Example
+    %       % Poll a keyboard and two joysticks at 200 Hz
+    %       hub = HebiInputHub(200);
+    %       addKeyboard(hub);
+    %       addJoystick(hub, 1);
+    %       addJoystick(hub, 2);
+    %       while true
+    %           [states, sequence, errors] = read(hub);
+    %           kb = states{1};
+    %           [axes, buttons, povs] = states{2}{:};
+    %           pause(0.01);
+    %       end
+    %
+    %   See also HebiJoystick, HebiKeyboard
+
+    % Copyright (c) 2016-2026 HEBI Robotics
+
+    properties (Access = private)
+        hub
+        kinds = '' % 'j'oystick, 'k'eyboard, or 'm'ouse per device
+    end
+
+    methods (Access = public)
+
+        function this = HebiInputHub(rate)
+            % creates a hub that polls at the given rate in Hz
+            if nargin < 1
+                rate = 100;
+            end
+
+            % Create backing Java object
+            HebiJoystick.loadLibs();
+            this.hub = us.hebi.matlab.input.InputHub(rate);
+        end
+
+        function index = addJoystick(this, index, driver)
+            % opens a joystick and adds it to the hub
+            if nargin < 3
+                driver = 'native';
+            end
+            index = addJoystick(this.hub, index, driver);
+            this.kinds(index) = 'j';
+        end
+
+        function index = addKeyboard(this, driver, index)
+            % opens a keyboard and adds it to the hub
+            if nargin < 3
+                index = 1;
+            end
+            if nargin < 2
+                driver = 'AWT';
+            end
+            index = addKeyboard(this.hub, driver, index);
+            this.kinds(index) = 'k';
+        end
+
+        function index = addMouse(this, index, driver)
+            % opens a mouse and adds it to the hub (native driver only)
+            if nargin < 3
+                driver = 'native';
+            end
+            index = addMouse(this.hub, index, driver);
+            this.kinds(index) = 'm';
+        end
+
+        function [states, sequence, errors] = read(this)
+            % returns the latest states of all devices
+            % Single Java call. The conversion happens on the MATLAB side.
+            snapshot = read(this.hub);
+            sequence = snapshot.sequence';
+            states = cell(snapshot.states)';
+            errors = cell(snapshot.errors)';
+
+            % Keyboards and mice are Java objects with public fields
+            for i = find(this.kinds ~= 'j')
+                states{i} = struct(states{i});
+            end
+        end
+
+        function [] = close(this)
+            % closes the hub and all of its devices
+            close(this.hub);
+        end
+
+    end
+
+    % Hide inherited methods (handle) from auto-complete
+    % and docs
+    methods(Access = public, Hidden = true)
+
+        function [] = delete(this)
+            % destructor disposes this instance
+            close(this);
+        end
+
+        function varargout = addlistener(varargin)
+            varargout{:} = addlistener@handle(varargin{:});
+        end
+        function varargout = eq(varargin)
+            varargout{:} = eq@handle(varargin{:});
+        end
+        function varargout = findobj(varargin)
+            varargout{:} = findobj@handle(varargin{:});
+        end
+        function varargout = findprop(varargin)
+            varargout{:} = findprop@handle(varargin{:});
+        end
+        function varargout = ge(varargin)
+            varargout{:} = ge@handle(varargin{:});
+        end
+        function varargout = gt(varargin)
+            varargout{:} = gt@handle(varargin{:});
+        end
+        function varargout = le(varargin)
+            varargout{:} = le@handle(varargin{:});
+        end
+        function varargout = lt(varargin)
+            varargout{:} = lt@handle(varargin{:});
+        end
+        function varargout = ne(varargin)
+            varargout{:} = ne@handle(varargin{:});
+        end
+        function varargout = notify(varargin)
+            varargout{:} = notify@handle(varargin{:});
+        end
+
+    end
+
+end
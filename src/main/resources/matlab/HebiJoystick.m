@@ -64,21 +64,30 @@ classdef (Sealed) HebiJoystick < handle
                 % Add Java library
                 javaaddpath(fullfile(localDir, jarFileName));
                 
+                % Load natives and scan for devices in the background,
+                % so that opening the first device is faster
+                us.hebi.matlab.input.JInputUtils.preload();
+                
             end
         end
     end
     
     methods (Access = public)
         
-        function this = HebiJoystick(index, ~)
+        function this = HebiJoystick(index, driver)
             % creates a joystick object
-            if nargin < 2
+            %
+            % The optional driver can be 'native' (default) or 'evdev'.
+            % The 'evdev' driver is Linux only and reads /dev/input/event*
+            % directly, which does not require root access.
+            if nargin < 2 || ~ischar(driver) || strcmpi(driver, 'forcefeedback')
                 % be compatible with the original API
+                driver = 'native';
             end
             
             % Create backing Java object
             HebiJoystick.loadLibs();
-            this.joy = us.hebi.matlab.input.HebiJoystick(index);
+            this.joy = us.hebi.matlab.input.HebiJoystick(index, driver);
             if ~ismac()
                 % Increase event queue to not have to poll as often.
                 % Doesn't work on mac.
@@ -133,14 +142,51 @@ classdef (Sealed) HebiJoystick < handle
             out = struct(caps(this.joy));
         end
         
+        function [] = startStreaming(this, host, port)
+            % streams every new state to another process via UDP
+            %
+            % The states are sent in a compact binary format from a
+            % background thread, so reading does not get slower. See
+            % us.hebi.matlab.input.StateReceiver for a Java receiver.
+            %
+            % Example
+            %   joy = HebiJoystick(1);
+            %   startStreaming(joy, 'localhost', 5500);
+            startStreaming(this.joy, host, port);
+        end
+        
+        function [] = stopStreaming(this)
+            % stops streaming states
+            stopStreaming(this.joy);
+        end
+        
         function [] = close(this)
             % closes and invalidates the joystick object
             close(this.joy);
         end
         
-        function [] = force(this, indices, value)
+        function [] = force(this, indices, value, envelope, duration)
             % applies force feedback to selected axes
-            force(this.joy, indices, value);
+            %
+            % The values are sent to the device in the background, so this
+            % call does not block. Optionally, the output can follow a
+            % timed envelope:
+            %
+            %   'ramp'  - ramps to the value over 'duration' seconds
+            %   'pulse' - holds the value for 'duration' seconds
+            %   'decay' - decays from the value with time constant 'duration'
+            %
+            % Example
+            %   joy = HebiJoystick(1);
+            %   force(joy, 1, 0.8, 'pulse', 0.25);
+            if nargin < 4
+                force(this.joy, indices, value);
+                return;
+            end
+            if nargin < 5
+                duration = 0;
+            end
+            force(this.joy, indices, value, envelope, duration);
         end
         
     end
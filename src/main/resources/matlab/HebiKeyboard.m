@@ -42,6 +42,11 @@ classdef (Sealed) HebiKeyboard < handle
     %       % Select first keyboard with native driver
     %       kb = HebiKeyboard('native', 1);
     %       state = read(kb);
+    %
+    %   Example
+    %       % Select first keyboard with the pure Java driver (Linux)
+    %       kb = HebiKeyboard('evdev', 1);
+    %       state = read(kb);
 
     % Copyright (c) 2016-2017 HEBI Robotics
     
@@ -90,6 +95,24 @@ classdef (Sealed) HebiKeyboard < handle
             out = struct(read(this.obj));
         end
         
+        function [] = startStreaming(this, host, port)
+            % streams every new state to another process via UDP
+            %
+            % The states are sent in a compact binary format from a
+            % background thread, so reading does not get slower. See
+            % us.hebi.matlab.input.StateReceiver for a Java receiver.
+            %
+            % Example
+            %   kb = HebiKeyboard();
+            %   startStreaming(kb, 'localhost', 5500);
+            startStreaming(this.obj, host, port);
+        end
+        
+        function [] = stopStreaming(this)
+            % stops streaming states
+            stopStreaming(this.obj);
+        end
+        
         function [] = close(this)
             % closes and invalidates the keyboard object
             close(this.obj);
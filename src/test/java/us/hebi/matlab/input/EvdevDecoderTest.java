@@ -0,0 +1,213 @@
+package us.hebi.matlab.input;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.Pipe;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @since 19 Oct 2026
+ */
+public class EvdevDecoderTest {
+
+    @Test
+    public void testDecode64Bit() throws Exception {
+        ByteBuffer bytes = allocate(2, true);
+        putEvent(bytes, true, 12, 345678, EvdevDecoder.EV_ABS, 1, -32767);
+        putEvent(bytes, true, 13, 5, EvdevDecoder.EV_KEY, 0x130, 1);
+
+        EvdevDecoder decoder = new EvdevDecoder(channel(bytes), true, 8);
+        RecordingListener listener = new RecordingListener();
+        assertEquals(2, decoder.read(listener));
+
+        assertEquals("3:1:-32767:12345678000", listener.events.get(0));
+        assertEquals("1:304:1:13000005000", listener.events.get(1));
+    }
+
+    @Test
+    public void testDecode32Bit() throws Exception {
+        ByteBuffer bytes = allocate(2, false);
+        putEvent(bytes, false, 1, 2, EvdevDecoder.EV_KEY, 30, 2);
+        putEvent(bytes, false, 3, 4, EvdevDecoder.EV_SYN, 0, 0);
+
+        EvdevDecoder decoder = new EvdevDecoder(channel(bytes), false, 8);
+        RecordingListener listener = new RecordingListener();
+        assertEquals(2, decoder.read(listener));
+
+        assertEquals(16, decoder.getEventSize());
+        assertEquals("1:30:2:1000002000", listener.events.get(0));
+        assertEquals("0:0:0:3000004000", listener.events.get(1));
+    }
+
+    @Test
+    public void testEventSplitAcrossWrites() throws Exception {
+        ByteBuffer bytes = allocate(1, true);
+        putEvent(bytes, true, 7, 8, EvdevDecoder.EV_ABS, 0, 127);
+
+        Pipe pipe = Pipe.open();
+        EvdevDecoder decoder = new EvdevDecoder(pipe.source(), true, 8);
+        RecordingListener listener = new RecordingListener();
+
+        // First part only
+        bytes.limit(10);
+        write(pipe, bytes);
+        assertEquals(0, decoder.read(listener));
+        assertTrue(listener.events.isEmpty());
+
+        // Remainder completes the event
+        bytes.limit(bytes.capacity());
+        write(pipe, bytes);
+        assertEquals(1, decoder.read(listener));
+        assertEquals("3:0:127:7000008000", listener.events.get(0));
+
+        // End of stream
+        pipe.sink().close();
+        assertEquals(-1, decoder.read(listener));
+        pipe.source().close();
+    }
+
+    @Test
+    public void testEndOfStream() throws Exception {
+        EvdevDecoder decoder = new EvdevDecoder(channel(allocate(0, true)), true, 8);
+        assertEquals(-1, decoder.read(new RecordingListener()));
+    }
+
+    @Test
+    public void testReadBitmask() throws Exception {
+        // Two words with the most significant word first
+        File file = File.createTempFile("evdev-caps", ".txt");
+        try {
+            FileWriter writer = new FileWriter(file);
+            writer.write("10000 3\n");
+            writer.close();
+
+            final int bitsPerWord = EvdevDecoder.isNative64Bit() ? 64 : 32;
+            BitSet bits = EvdevController.Capabilities.readBitmask(file);
+            assertEquals(3, bits.cardinality());
+            assertTrue(bits.get(0));
+            assertTrue(bits.get(1));
+            assertTrue(bits.get(bitsPerWord + 16));
+        } finally {
+            assertTrue(file.delete());
+        }
+    }
+
+    @Test
+    public void testParseBitmask() throws Exception {
+        BitSet bits = EvdevController.Capabilities.parseBitmask("  1 0 80000001 ", 32);
+        assertEquals(3, bits.cardinality());
+        assertTrue(bits.get(0));
+        assertTrue(bits.get(31));
+        assertTrue(bits.get(64));
+
+        assertTrue(EvdevController.Capabilities.parseBitmask("0", 64).isEmpty());
+        assertTrue(EvdevController.Capabilities.readBitmask(new File("does-not-exist")).isEmpty());
+    }
+
+    @Test
+    public void testJoydevDecode() throws Exception {
+        ByteBuffer bytes = ByteBuffer.allocate(2 * JoydevDecoder.EVENT_SIZE).order(ByteOrder.nativeOrder());
+        bytes.putInt(100).putShort((short) -32767).put((byte) (JoydevDecoder.JS_EVENT_AXIS | JoydevDecoder.JS_EVENT_INIT)).put((byte) 3);
+        bytes.putInt(200).putShort((short) 1).put((byte) JoydevDecoder.JS_EVENT_BUTTON).put((byte) 0);
+        bytes.flip();
+
+        JoydevDecoder decoder = new JoydevDecoder(channel(bytes), 8);
+        final List<String> events = new ArrayList<String>();
+        JoydevDecoder.Listener listener = new JoydevDecoder.Listener() {
+            @Override
+            public void onJoydevEvent(int type, int number, int value) {
+                events.add(type + ":" + number + ":" + value);
+            }
+        };
+        assertEquals(2, decoder.read(listener));
+        assertEquals("130:3:-32767", events.get(0));
+        assertEquals("1:0:1", events.get(1));
+        assertEquals(-1, decoder.read(listener));
+    }
+
+    @Test
+    public void testAnalogAxesRequireJoydev() throws Exception {
+        // Device with X and Y axes, but without a js* node
+        File sysfsDir = File.createTempFile("evdev-sysfs", "");
+        assertTrue(sysfsDir.delete());
+        File capsDir = new File(sysfsDir, "capabilities");
+        assertTrue(capsDir.mkdirs());
+        File nameFile = new File(sysfsDir, "name");
+        File absFile = new File(capsDir, "abs");
+        try {
+            write(nameFile, "Gamepad\n");
+            write(absFile, "3\n");
+            EvdevController.Capabilities caps = new EvdevController.Capabilities(sysfsDir);
+            assertNull(caps.joydev);
+
+            try {
+                new EvdevController(new File(sysfsDir, "event0"), caps);
+                fail("opened analog axes without a known range");
+            } catch (MatlabError expected) {
+                assertTrue(expected.getMessage().contains("joydev"));
+            }
+        } finally {
+            assertTrue(absFile.delete());
+            assertTrue(nameFile.delete());
+            assertTrue(capsDir.delete());
+            assertTrue(sysfsDir.delete());
+        }
+    }
+
+    private static void write(File file, String content) throws IOException {
+        FileWriter writer = new FileWriter(file);
+        writer.write(content);
+        writer.close();
+    }
+
+    private static ByteBuffer allocate(int numEvents, boolean is64Bit) {
+        return ByteBuffer.allocate(numEvents * EvdevDecoder.getEventSize(is64Bit)).order(ByteOrder.nativeOrder());
+    }
+
+    private static void putEvent(ByteBuffer buffer, boolean is64Bit, long seconds, long micros, int type, int code, int value) {
+        if (is64Bit) {
+            buffer.putLong(seconds).putLong(micros);
+        } else {
+            buffer.putInt((int) seconds).putInt((int) micros);
+        }
+        buffer.putShort((short) type).putShort((short) code).putInt(value);
+        if (!buffer.hasRemaining())
+            buffer.flip();
+    }
+
+    private static ReadableByteChannel channel(ByteBuffer bytes) {
+        byte[] array = new byte[bytes.remaining()];
+        bytes.get(array);
+        return Channels.newChannel(new ByteArrayInputStream(array));
+    }
+
+    private static void write(Pipe pipe, ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            pipe.sink().write(bytes);
+        }
+    }
+
+    private static class RecordingListener implements EvdevDecoder.Listener {
+
+        @Override
+        public void onEvent(int type, int code, int value, long nanos) {
+            events.add(type + ":" + code + ":" + value + ":" + nanos);
+        }
+
+        final List<String> events = new ArrayList<String>();
+
+    }
+
+}
@@ -0,0 +1,106 @@
+package us.hebi.matlab.input;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @since 19 Oct 2026
+ */
+public class EventBufferTest {
+
+    @Test
+    public void testReadInOrder() {
+        EventBuffer buffer = new EventBuffer(4);
+        EventBuffer.Cursor cursor = buffer.newCursor();
+        add(buffer, 1, 2, 3);
+        assertValues(cursor, 1, 2, 3);
+        assertFalse(cursor.next());
+        assertEquals(0, cursor.getDroppedEvents());
+    }
+
+    @Test
+    public void testLaggingReaderSkipsOverwrittenEvents() {
+        EventBuffer buffer = new EventBuffer(4);
+        EventBuffer.Cursor cursor = buffer.newCursor();
+        add(buffer, 1, 2, 3, 4, 5, 6);
+        assertValues(cursor, 3, 4, 5, 6);
+        assertEquals(2, cursor.getDroppedEvents());
+    }
+
+    @Test
+    public void testGrowBeforeWrapping() {
+        EventBuffer buffer = new EventBuffer(4);
+        add(buffer, 1, 2);
+        buffer.ensureCapacity(16);
+
+        // New readers must not see slots that were never written
+        assertEquals(0, buffer.getOldestIndex());
+        assertValues(buffer.newCursor(), 1, 2);
+    }
+
+    @Test
+    public void testGrowAfterWrapping() {
+        EventBuffer buffer = new EventBuffer(4);
+        EventBuffer.Cursor lagging = buffer.newCursor();
+        add(buffer, 1, 2, 3, 4, 5, 6);
+        buffer.ensureCapacity(16);
+
+        assertEquals(16, buffer.getCapacity());
+        assertEquals(2, buffer.getOldestIndex());
+        assertValues(buffer.newCursor(), 3, 4, 5, 6);
+
+        // A reader that fell behind before growing only sees retained events
+        assertValues(lagging, 3, 4, 5, 6);
+        assertEquals(2, lagging.getDroppedEvents());
+
+        // Events after growing use the full capacity
+        add(buffer, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18);
+        assertEquals(2, buffer.getOldestIndex());
+        add(buffer, 19);
+        assertEquals(3, buffer.getOldestIndex());
+        assertEquals(4f, first(buffer.newCursor()), 0);
+    }
+
+    @Test
+    public void testGrowTwice() {
+        EventBuffer buffer = new EventBuffer(2);
+        add(buffer, 1, 2, 3);
+        buffer.ensureCapacity(4);
+        add(buffer, 4);
+        buffer.ensureCapacity(8);
+        assertValues(buffer.newCursor(), 2, 3, 4);
+    }
+
+    @Test
+    public void testCursorIndex() {
+        EventBuffer buffer = new EventBuffer(2);
+        add(buffer, 1, 2, 3);
+        EventBuffer.Cursor cursor = buffer.newCursor();
+        assertTrue(cursor.next());
+        assertEquals(1, cursor.getIndex());
+        assertTrue(cursor.next());
+        assertEquals(2, cursor.getIndex());
+    }
+
+    private static void add(EventBuffer buffer, float... values) {
+        for (float value : values) {
+            buffer.add(null, value, (long) value);
+        }
+    }
+
+    private static float first(EventBuffer.Cursor cursor) {
+        assertTrue(cursor.next());
+        return cursor.getValue();
+    }
+
+    private static void assertValues(EventBuffer.Cursor cursor, float... expected) {
+        for (float value : expected) {
+            assertTrue(cursor.next());
+            assertEquals(value, cursor.getValue(), 0);
+            assertEquals((long) value, cursor.getNanos());
+        }
+        assertFalse(cursor.next());
+    }
+
+}
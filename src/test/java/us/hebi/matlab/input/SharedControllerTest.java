@@ -0,0 +1,137 @@
+package us.hebi.matlab.input;
+
+import net.java.games.input.AbstractComponent;
+import net.java.games.input.AbstractController;
+import net.java.games.input.Component;
+import net.java.games.input.Controller;
+import net.java.games.input.Event;
+import net.java.games.input.Rumbler;
+import org.junit.Test;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @since 19 Oct 2026
+ */
+public class SharedControllerTest {
+
+    @Test
+    public void testHandlesShareDevice() {
+        FakeController device = new FakeController();
+        SharedController.Handle first = acquire("test:share", device);
+        SharedController.Handle second = acquire("test:share", new FakeController());
+        assertSame(first.getController(), second.getController());
+
+        device.pending.add(new float[]{0, 0.5f});
+        assertTrue(first.poll());
+        assertValues(first, 0.5f);
+        assertValues(second, 0.5f);
+
+        first.close();
+        second.close();
+        assertTrue(device.isClosed);
+    }
+
+    @Test
+    public void testNewHandleSkipsOldRelativeEvents() {
+        FakeController device = new FakeController();
+        SharedController.Handle first = acquire("test:relative", device);
+
+        // absolute axis, relative axis
+        device.pending.add(new float[]{0, 0.25f});
+        device.pending.add(new float[]{1, 5});
+        device.pending.add(new float[]{0, 0.75f});
+        first.poll();
+        assertValues(first, 0.25f, 5, 0.75f);
+
+        // New handles only replay absolute components
+        SharedController.Handle second = acquire("test:relative", new FakeController());
+        assertValues(second, 0.25f, 0.75f);
+
+        // Newer relative events are seen by everyone
+        device.pending.add(new float[]{1, -3});
+        second.poll();
+        assertValues(first, -3);
+        assertValues(second, -3);
+
+        first.close();
+        second.close();
+    }
+
+    private static SharedController.Handle acquire(String driver, final FakeController device) {
+        return SharedController.acquire(driver, new SharedController.Factory() {
+            @Override
+            public CloseableController create() {
+                return new CloseableController(device, Collections.<Thread>emptyList(), "fake");
+            }
+        });
+    }
+
+    private static void assertValues(SharedController.Handle handle, float... expected) {
+        for (float value : expected) {
+            assertTrue(handle.nextEvent());
+            assertEquals(value, handle.getValue(), 0);
+        }
+        assertFalse(handle.nextEvent());
+    }
+
+    private static class FakeController extends AbstractController implements EventSource, Closeable {
+
+        FakeController() {
+            super("Fake", new Component[]{
+                    new FakeComponent(Component.Identifier.Axis.X, false),
+                    new FakeComponent(Component.Identifier.Axis.RX, true)
+            }, new Controller[0], new Rumbler[0]);
+        }
+
+        @Override
+        public boolean drainEvents(EventBuffer buffer) {
+            for (float[] event : pending) {
+                buffer.add(getComponents()[(int) event[0]], event[1], 0);
+            }
+            pending.clear();
+            return true;
+        }
+
+        @Override
+        protected boolean getNextDeviceEvent(Event event) {
+            return false;
+        }
+
+        @Override
+        public void close() {
+            isClosed = true;
+        }
+
+        final List<float[]> pending = new ArrayList<float[]>();
+        boolean isClosed = false;
+
+    }
+
+    private static class FakeComponent extends AbstractComponent {
+
+        FakeComponent(Identifier id, boolean isRelative) {
+            super(id.getName(), id);
+            this.isRelative = isRelative;
+        }
+
+        @Override
+        public boolean isRelative() {
+            return isRelative;
+        }
+
+        @Override
+        protected float poll() {
+            return 0;
+        }
+
+        private final boolean isRelative;
+
+    }
+
+}
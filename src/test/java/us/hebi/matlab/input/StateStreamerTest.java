@@ -0,0 +1,106 @@
+package us.hebi.matlab.input;
+
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+
+import static org.junit.Assert.*;
+
+/**
+ * @since 19 Oct 2026
+ */
+public class StateStreamerTest {
+
+    @Test(timeout = 5000)
+    public void testRoundTrip() throws Exception {
+        StateReceiver receiver = new StateReceiver(0);
+        StateStreamer streamer = new StateStreamer("localhost", receiver.getPort());
+        try {
+            double[] axes = {0.5, -1, 0.25};
+            double[] buttons = {1, 0, 0, 1, 0, 0, 0, 0, 1};
+            double[] povs = {90, -1};
+            streamer.publish(StatePacket.KIND_JOYSTICK, axes, buttons, povs);
+
+            StatePacket packet = receiver.receive();
+            assertEquals(StatePacket.KIND_JOYSTICK, packet.kind);
+            assertEquals(1, packet.sequence);
+            assertArrayEquals(axes, packet.axes, 0);
+            assertArrayEquals(buttons, packet.buttons, 0);
+            assertArrayEquals(povs, packet.povs, 0);
+        } finally {
+            streamer.close();
+            receiver.close();
+        }
+    }
+
+    @Test
+    public void testEncodeDecode() throws Exception {
+        ByteBuffer buffer = encode(42, new double[]{0.75}, new double[]{0, 1, 1}, new double[]{270});
+        assertEquals(StatePacket.getSize(1, 3, 1), buffer.remaining());
+
+        StatePacket packet = StatePacket.decode(buffer);
+        assertNotNull(packet);
+        assertEquals(StatePacket.KIND_KEYBOARD, packet.kind);
+        assertEquals(42, packet.sequence);
+        assertEquals(1234, packet.timeMillis);
+        assertArrayEquals(new double[]{0.75}, packet.axes, 0);
+        assertArrayEquals(new double[]{0, 1, 1}, packet.buttons, 0);
+        assertArrayEquals(new double[]{270}, packet.povs, 0);
+    }
+
+    @Test
+    public void testDecodeTruncated() throws Exception {
+        ByteBuffer buffer = encode(1, new double[]{1, 2}, new double[0], new double[]{0});
+        for (int length = 0; length < buffer.limit(); length++) {
+            ByteBuffer truncated = buffer.duplicate();
+            truncated.limit(length);
+            assertNull("length " + length, StatePacket.decode(truncated));
+        }
+    }
+
+    @Test
+    public void testDecodeBadMagic() throws Exception {
+        ByteBuffer buffer = encode(1, new double[0], new double[0], new double[0]);
+        buffer.put(0, (byte) 'X');
+        assertNull(StatePacket.decode(buffer));
+
+        buffer = encode(1, new double[0], new double[0], new double[0]);
+        buffer.put(4, (byte) (StatePacket.VERSION + 1));
+        assertNull(StatePacket.decode(buffer));
+    }
+
+    @Test(timeout = 5000)
+    public void testReceiveDropsOutOfOrder() throws Exception {
+        StateReceiver receiver = new StateReceiver(0);
+        DatagramChannel sender = DatagramChannel.open();
+        try {
+            InetSocketAddress target = new InetSocketAddress("localhost", receiver.getPort());
+            sender.send(encode(5, new double[0], new double[0], new double[0]), target);
+            sender.send(encode(3, new double[0], new double[0], new double[0]), target);
+            sender.send(encode(5, new double[0], new double[0], new double[0]), target);
+            sender.send(ByteBuffer.wrap(new byte[]{1, 2, 3}), target);
+            sender.send(encode(6, new double[0], new double[0], new double[0]), target);
+
+            assertEquals(5, receiver.receive().sequence);
+            assertEquals(6, receiver.receive().sequence);
+
+            // Restarted sender
+            sender.send(encode(1, new double[0], new double[0], new double[0]), target);
+            assertEquals(1, receiver.receive().sequence);
+        } finally {
+            sender.close();
+            receiver.close();
+        }
+    }
+
+    private static ByteBuffer encode(long sequence, double[] axes, double[] buttons, double[] povs) {
+        ByteBuffer buffer = ByteBuffer.allocate(StatePacket.getSize(axes.length, buttons.length, povs.length));
+        StatePacket.encode(buffer, StatePacket.KIND_KEYBOARD, sequence, 1234,
+                axes, axes.length, buttons, buttons.length, povs, povs.length);
+        buffer.flip();
+        return buffer;
+    }
+
+}